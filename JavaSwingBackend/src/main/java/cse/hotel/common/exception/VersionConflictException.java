@@ -0,0 +1,21 @@
+package cse.hotel.common.exception;
+
+/**
+ * 수정 요청의 버전이 서버에 저장된 버전과 다를 때 (다른 사용자가 먼저 수정한 경우)
+ * 서버의 최신 데이터를 함께 담아 클라이언트에 돌려줍니다.
+ */
+public class VersionConflictException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object current;
+
+    public VersionConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    /** 서버에 저장된 최신 데이터 */
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -16,6 +16,9 @@ public class Customer implements Serializable {
     // 3. 고객 전화번호 (Key 역할을 할 수 있음)
     private String phoneNumber;
 
+    // 4. 수정 버전 (서버가 변경할 때마다 1씩 증가, 동시 수정 충돌 검사용)
+    private long version;
+
     // --- 생성자 ---
     
     public Customer(String customerId, String name, String phoneNumber) {
@@ -50,6 +53,14 @@ public class Customer implements Serializable {
         this.phoneNumber = phoneNumber;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // --- 데이터 확인용 toString (선택 사항) ---
 
 //    @Override
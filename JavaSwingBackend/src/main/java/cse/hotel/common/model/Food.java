@@ -9,6 +9,7 @@ public class Food implements Serializable {
     private int price;
     private String description;
     private int stock; // [추가] 재고 수량
+    private long version; // 수정 버전 (재고 차감 포함, 변경할 때마다 1씩 증가)
 
     // 생성자
     public Food(String name, int price, String description, int stock) {
@@ -26,6 +27,9 @@ public class Food implements Serializable {
     public int getStock() { return stock; } // [추가]
     public void setStock(int stock) { this.stock = stock; } // [추가]
 
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
     // 재고 차감 메서드
     public void decreaseStock(int amount) {
         this.stock -= amount;
@@ -11,14 +11,20 @@ public class FoodOrder implements Serializable {
     private String foodName;     // 메뉴 이름
     private int count;           // 수량
     private int totalPrice;      // 총 가격
+    private String orderTime;    // 주문 시각 (서버 기준 "yyyy-MM-ddTHH:mm:ss", 예전 주문은 "yyyy-MM-dd" 또는 null)
 
     public FoodOrder(String orderId, String customerId, int roomNumber, String foodName, int count, int totalPrice) {
+        this(orderId, customerId, roomNumber, foodName, count, totalPrice, null);
+    }
+
+    public FoodOrder(String orderId, String customerId, int roomNumber, String foodName, int count, int totalPrice, String orderTime) {
         this.orderId = orderId;
         this.customerId = customerId;
         this.roomNumber = roomNumber;
         this.foodName = foodName;
         this.count = count;
         this.totalPrice = totalPrice;
+        this.orderTime = orderTime;
     }
 
     // Getters
@@ -28,6 +34,12 @@ public class FoodOrder implements Serializable {
     public String getFoodName() { return foodName; }
     public int getCount() { return count; }
     public int getTotalPrice() { return totalPrice; }
+    public String getOrderTime() { return orderTime; }
+
+    /** 주문 날짜 "yyyy-MM-dd" (주문 시각을 모르면 null) */
+    public String getOrderDate() {
+        return (orderTime == null || orderTime.length() < 10) ? null : orderTime.substring(0, 10);
+    }
     
     @Override
     public String toString() {
@@ -13,6 +13,7 @@ public class Room implements Serializable{
     private String roomType;   // 객실 타입 (예: "싱글", "더블")
     private int price;         // 가격
     private RoomStatus status; // 객실 상태 (Enum 사용)
+    private long version;      // 수정 버전 (서버가 변경할 때마다 1씩 증가, 동시 수정 충돌 검사용)
     
 
     // 2. 생성자 (Room 객체를 생성할 때 사용할 '틀')
@@ -59,6 +60,14 @@ public class Room implements Serializable{
         this.status = status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // 4. (선택사항) toString() 메서드 - 디버깅에 매우 유용합니다!
     // 객체 정보를 한눈에 보고 싶을 때 사용합니다.
     @Override
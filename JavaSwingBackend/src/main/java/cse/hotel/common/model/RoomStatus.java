@@ -7,4 +7,18 @@ public enum RoomStatus implements Serializable {
     OCCUPIED, 
     CLEANING, 
     RESERVED; 
-}
\ No newline at end of file
+
+    /**
+     * 상태 전이 규칙: AVAILABLE → RESERVED → OCCUPIED → CLEANING → AVAILABLE
+     * (예약 없이 바로 입실하는 AVAILABLE → OCCUPIED, 예약 취소 RESERVED → AVAILABLE 포함)
+     */
+    public boolean canTransitionTo(RoomStatus next) {
+        switch (this) {
+            case AVAILABLE: return next == RESERVED || next == OCCUPIED;
+            case RESERVED:  return next == OCCUPIED || next == AVAILABLE;
+            case OCCUPIED:  return next == CLEANING;
+            case CLEANING:  return next == AVAILABLE;
+            default:        return false;
+        }
+    }
+}
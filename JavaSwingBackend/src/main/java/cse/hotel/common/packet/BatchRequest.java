@@ -0,0 +1,37 @@
+package cse.hotel.common.packet;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BATCH 명령의 데이터 (여러 요청을 한 번의 왕복으로 처리)
+ * 응답의 resultData 는 요청과 같은 순서의 List&lt;Response&gt; 입니다.
+ *
+ * - 조회(GET_*) 요청은 서로 독립적이므로 병렬로 실행됩니다.
+ * - 변경 요청은 항상 보낸 순서대로 하나씩 실행됩니다.
+ * - stopOnFailure 가 true 이면 첫 실패 이후의 요청은 실행하지 않고 실패 응답으로 채웁니다.
+ *
+ * (간단히 Request.data 에 List&lt;Request&gt; 를 담아 보내도 되며, 이 경우 stopOnFailure 는 false 입니다.)
+ */
+public class BatchRequest implements Serializable {
+    private static final long serialVersionUID = 400L;
+
+    private ArrayList<Request> requests;
+    private boolean stopOnFailure;
+
+    public BatchRequest(List<Request> requests, boolean stopOnFailure) {
+        this.requests = new ArrayList<>(requests);
+        this.stopOnFailure = stopOnFailure;
+    }
+
+    public BatchRequest(List<Request> requests) {
+        this(requests, false);
+    }
+
+    // --- Getters & Setters ---
+    public List<Request> getRequests() { return requests; }
+    public void setRequests(List<Request> requests) { this.requests = new ArrayList<>(requests); }
+    public boolean isStopOnFailure() { return stopOnFailure; }
+    public void setStopOnFailure(boolean stopOnFailure) { this.stopOnFailure = stopOnFailure; }
+}
@@ -0,0 +1,606 @@
+package cse.hotel.common.packet;
+
+import cse.hotel.common.model.ClientReservation;
+import cse.hotel.common.model.Customer;
+import cse.hotel.common.model.Food;
+import cse.hotel.common.model.FoodOrder;
+import cse.hotel.common.model.ReportData;
+import cse.hotel.common.model.Reservation;
+import cse.hotel.common.model.Room;
+import cse.hotel.common.model.RoomStatus;
+import cse.hotel.common.model.User;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Java 기본 직렬화 대신 사용할 수 있는 바이너리 통신 형식
+ *
+ * 연결을 연 클라이언트가 첫 바이트로 HANDSHAKE 를 보내면 이 형식을 사용하고,
+ * 그렇지 않으면(ObjectOutputStream 헤더 0xACED) 기존 직렬화 방식으로 통신합니다.
+ *
+ * 프레임 형식 (요청/응답 동일)
+ *   [int 길이][long correlationId][byte flags][본문]
+ *   - 길이는 correlationId 부터 본문 끝까지의 바이트 수
+ *   - 요청 본문: [문자열 command][값 data]
+ *   - 응답 본문: [boolean success][문자열 message][값 resultData]
+ *
+ * 값은 [1바이트 타입 태그][내용] 으로 기록되며, 모델 클래스(Room, Customer, ClientReservation, Food ...)는
+ * 클래스 정보 없이 필드만 순서대로 기록합니다. 등록되지 않은 타입은 Java 직렬화 바이트로 대신 보냅니다.
+ */
+public final class BinaryCodec {
+
+    /** 연결의 첫 바이트로 보내는 바이너리 형식 선택 값 (Java 직렬화 스트림은 0xAC 로 시작) */
+    public static final byte HANDSHAKE = (byte) 0xB1;
+
+    /** flags: 요청 - 응답 후 연결 유지 */
+    public static final int FLAG_KEEP_ALIVE = 0x01;
+
+    /** flags: 요청 - 압축된 응답을 받을 수 있음 / 응답 - 본문이 압축됨 ([int 원본 크기][Deflate 바이트]) */
+    public static final int FLAG_COMPRESSED = 0x02;
+
+    /** 프레임 헤더(correlationId + flags) 크기 */
+    public static final int HEADER_BYTES = Long.BYTES + 1;
+
+    /** 기본 최대 프레임 크기 */
+    public static final int DEFAULT_MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    // 값 안에 값이 들어갈 수 있는 최대 깊이 (목록 속 목록 등, 넘으면 StreamCorruptedException)
+    private static final int MAX_DEPTH = 32;
+
+    // --- 값 타입 태그 ---
+    private static final byte T_NULL = 0;
+    private static final byte T_INT = 1;
+    private static final byte T_LONG = 2;
+    private static final byte T_DOUBLE = 3;
+    private static final byte T_BOOLEAN = 4;
+    private static final byte T_STRING = 5;
+    private static final byte T_LIST = 6;
+    private static final byte T_MAP = 7;
+    private static final byte T_DATE = 8;
+
+    private static final byte T_ROOM = 20;
+    private static final byte T_CUSTOMER = 21;
+    private static final byte T_CLIENT_RESERVATION = 22;
+    private static final byte T_FOOD = 23;
+    private static final byte T_RESERVATION = 24;
+    private static final byte T_REPORT_DATA = 25;
+    private static final byte T_USER = 26;
+    private static final byte T_FOOD_ORDER = 27;
+    private static final byte T_REQUEST = 28;
+    private static final byte T_RESPONSE = 29;
+    private static final byte T_BATCH_REQUEST = 30;
+    private static final byte T_EXPORT_CHUNK = 31;
+
+    private static final byte T_SERIALIZED = 127;
+
+    private static final RoomStatus[] ROOM_STATUSES = RoomStatus.values();
+
+    private BinaryCodec() {}
+
+    // =========================================================================
+    //                              프레임 단위 입출력
+    // =========================================================================
+
+    /**
+     * 요청을 프레임으로 기록합니다. (클라이언트용)
+     */
+    public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.write(encodeRequestFrame(request));
+    }
+
+    /**
+     * 프레임 1개를 읽어 요청으로 복원합니다.
+     * @throws EOFException 프레임을 읽기 전에 연결이 닫힌 경우
+     */
+    public static Request readRequest(DataInputStream in, int maxFrameBytes) throws IOException, ClassNotFoundException {
+        return decodeRequest(readFrame(in, maxFrameBytes));
+    }
+
+    public static void writeResponse(DataOutputStream out, Response response) throws IOException {
+        out.write(encodeResponseFrame(response));
+    }
+
+    /**
+     * 프레임 1개를 읽어 응답으로 복원합니다. (클라이언트용)
+     */
+    public static Response readResponse(DataInputStream in) throws IOException, ClassNotFoundException {
+        return decodeResponse(readFrame(in, DEFAULT_MAX_FRAME_BYTES));
+    }
+
+    /**
+     * 길이 필드를 제외한 프레임(헤더 + 본문)을 읽습니다.
+     */
+    public static byte[] readFrame(DataInputStream in, int maxFrameBytes) throws IOException {
+        int length = in.readInt();
+        if (length < HEADER_BYTES || length > maxFrameBytes) {
+            throw new StreamCorruptedException("잘못된 프레임 길이: " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    // =========================================================================
+    //                            프레임 인코딩 / 디코딩
+    // =========================================================================
+
+    /** 길이 필드를 포함한 요청 프레임 */
+    public static byte[] encodeRequestFrame(Request request) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(body);
+        writeString(out, request.getCommand());
+        writeValue(out, request.getData());
+        int flags = (request.isKeepAlive() ? FLAG_KEEP_ALIVE : 0)
+                | (request.isAcceptCompression() ? FLAG_COMPRESSED : 0);
+        return frame(request.getCorrelationId(), flags, body.toByteArray());
+    }
+
+    /** 길이 필드를 제외한 프레임(헤더 + 본문)을 요청으로 복원 */
+    public static Request decodeRequest(byte[] frame) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        long correlationId = in.readLong();
+        int flags = in.readUnsignedByte();
+        Request request = new Request(readString(in), readValue(in));
+        request.setCorrelationId(correlationId);
+        request.setKeepAlive((flags & FLAG_KEEP_ALIVE) != 0);
+        request.setAcceptCompression((flags & FLAG_COMPRESSED) != 0);
+        return request;
+    }
+
+    /** 길이 필드를 포함한 응답 프레임 */
+    public static byte[] encodeResponseFrame(Response response) throws IOException {
+        return frame(response.getCorrelationId(), 0, encodeResponseBody(response));
+    }
+
+    /** 응답 본문(헤더 제외)만 인코딩 */
+    public static byte[] encodeResponseBody(Response response) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeBoolean(response.isSuccess());
+        writeString(out, response.getMessage());
+        writeValue(out, response.getResultData());
+        return body.toByteArray();
+    }
+
+    /** 본문을 압축한 응답 프레임 ([int 원본 크기][Deflate 바이트], FLAG_COMPRESSED) */
+    public static byte[] compressedResponseFrame(long correlationId, byte[] deflated, int originalSize) {
+        return frame(correlationId, FLAG_COMPRESSED, compressedBody(deflated, originalSize));
+    }
+
+    /** 압축된 응답의 본문 ([int 원본 크기][Deflate 바이트]) */
+    public static byte[] compressedBody(byte[] deflated, int originalSize) {
+        byte[] body = new byte[Integer.BYTES + deflated.length];
+        writeIntAt(body, 0, originalSize);
+        System.arraycopy(deflated, 0, body, Integer.BYTES, deflated.length);
+        return body;
+    }
+
+    /** 길이 필드를 제외한 프레임(헤더 + 본문)을 응답으로 복원 */
+    public static Response decodeResponse(byte[] frame) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        long correlationId = in.readLong();
+        int flags = in.readUnsignedByte();
+        if ((flags & FLAG_COMPRESSED) != 0) {
+            int originalSize = readCount(in);
+            byte[] deflated = in.readAllBytes();
+            in = new DataInputStream(new ByteArrayInputStream(CompressedPayload.inflate(deflated, originalSize)));
+        }
+        boolean success = in.readBoolean();
+        String message = readString(in);
+        Object resultData = readValue(in);
+
+        Response response = new Response(resultData, message);
+        response.setSuccess(success);
+        response.setCorrelationId(correlationId);
+        return response;
+    }
+
+    /** [길이][correlationId][flags][본문] 프레임을 만듭니다. */
+    public static byte[] frame(long correlationId, int flags, byte[] body) {
+        byte[] frame = new byte[Integer.BYTES + HEADER_BYTES + body.length];
+        writeFrameHeader(frame, correlationId, flags, body.length);
+        System.arraycopy(body, 0, frame, Integer.BYTES + HEADER_BYTES, body.length);
+        return frame;
+    }
+
+    /**
+     * 본문 앞에 붙는 [길이][correlationId][flags] 부분만 만듭니다.
+     * (미리 인코딩해 둔 본문을 복사하지 않고 이어서 보낼 때 사용)
+     */
+    public static byte[] frameHeader(long correlationId, int flags, int bodyLength) {
+        byte[] header = new byte[Integer.BYTES + HEADER_BYTES];
+        writeFrameHeader(header, correlationId, flags, bodyLength);
+        return header;
+    }
+
+    private static void writeFrameHeader(byte[] b, long correlationId, int flags, int bodyLength) {
+        writeIntAt(b, 0, HEADER_BYTES + bodyLength);
+        writeLongAt(b, Integer.BYTES, correlationId);
+        b[Integer.BYTES + Long.BYTES] = (byte) flags;
+    }
+
+    private static void writeIntAt(byte[] b, int off, int v) {
+        b[off] = (byte) (v >>> 24);
+        b[off + 1] = (byte) (v >>> 16);
+        b[off + 2] = (byte) (v >>> 8);
+        b[off + 3] = (byte) v;
+    }
+
+    private static void writeLongAt(byte[] b, int off, long v) {
+        writeIntAt(b, off, (int) (v >>> 32));
+        writeIntAt(b, off + 4, (int) v);
+    }
+
+    // =========================================================================
+    //                                값 인코딩
+    // =========================================================================
+
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof Integer v) {
+            out.writeByte(T_INT);
+            out.writeInt(v);
+        } else if (value instanceof Long v) {
+            out.writeByte(T_LONG);
+            out.writeLong(v);
+        } else if (value instanceof Double v) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble(v);
+        } else if (value instanceof Boolean v) {
+            out.writeByte(T_BOOLEAN);
+            out.writeBoolean(v);
+        } else if (value instanceof String v) {
+            out.writeByte(T_STRING);
+            writeString(out, v);
+        } else if (value instanceof Date v) {
+            out.writeByte(T_DATE);
+            out.writeLong(v.getTime());
+        } else if (value instanceof Room v) {
+            out.writeByte(T_ROOM);
+            writeRoom(out, v);
+        } else if (value instanceof Customer v) {
+            out.writeByte(T_CUSTOMER);
+            writeCustomer(out, v);
+        } else if (value instanceof ClientReservation v) {
+            out.writeByte(T_CLIENT_RESERVATION);
+            writeClientReservation(out, v);
+        } else if (value instanceof Food v) {
+            out.writeByte(T_FOOD);
+            writeFood(out, v);
+        } else if (value instanceof Reservation v) {
+            out.writeByte(T_RESERVATION);
+            writeReservation(out, v);
+        } else if (value instanceof ReportData v) {
+            out.writeByte(T_REPORT_DATA);
+            writeReportData(out, v);
+        } else if (value instanceof User v) {
+            out.writeByte(T_USER);
+            writeString(out, v.getId());
+            writeString(out, v.getPassword());
+            out.writeBoolean(v.isAdmin());
+        } else if (value instanceof FoodOrder v) {
+            out.writeByte(T_FOOD_ORDER);
+            writeFoodOrder(out, v);
+        } else if (value instanceof Request v) {
+            out.writeByte(T_REQUEST);
+            writeString(out, v.getCommand());
+            out.writeLong(v.getCorrelationId());
+            out.writeBoolean(v.isKeepAlive());
+            writeValue(out, v.getData());
+        } else if (value instanceof Response v) {
+            out.writeByte(T_RESPONSE);
+            out.writeBoolean(v.isSuccess());
+            writeString(out, v.getMessage());
+            out.writeLong(v.getCorrelationId());
+            writeValue(out, v.getResultData());
+        } else if (value instanceof BatchRequest v) {
+            out.writeByte(T_BATCH_REQUEST);
+            out.writeBoolean(v.isStopOnFailure());
+            writeValue(out, v.getRequests());
+        } else if (value instanceof ExportChunk v) {
+            out.writeByte(T_EXPORT_CHUNK);
+            out.writeInt(v.getSequence());
+            out.writeInt(v.getRows());
+            out.writeBoolean(v.isLast());
+            writeString(out, v.getCsv());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(T_LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(T_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeValue(out, e.getKey());
+                writeValue(out, e.getValue());
+            }
+        } else if (value instanceof Serializable) {
+            // 전용 인코더가 없는 타입 (예: UserManagementData)은 Java 직렬화로 대신 보냅니다.
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(value);
+            }
+            out.writeByte(T_SERIALIZED);
+            out.writeInt(bos.size());
+            bos.writeTo(out);
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    /** 값 1개를 읽습니다. (in 은 프레임 바이트 배열 위의 스트림이어야 available() 로 남은 길이를 검사할 수 있음) */
+    static Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        return readValue(in, 0);
+    }
+
+    // depth: 목록/맵/요청 안에 들어간 깊이 (MAX_DEPTH 를 넘으면 손상된 프레임으로 처리)
+    private static Object readValue(DataInputStream in, int depth) throws IOException, ClassNotFoundException {
+        if (depth > MAX_DEPTH) {
+            throw new StreamCorruptedException("값이 너무 깊게 중첩되어 있습니다. (최대 " + MAX_DEPTH + ")");
+        }
+        byte tag = in.readByte();
+        switch (tag) {
+            case T_NULL:
+                return null;
+            case T_INT:
+                return in.readInt();
+            case T_LONG:
+                return in.readLong();
+            case T_DOUBLE:
+                return in.readDouble();
+            case T_BOOLEAN:
+                return in.readBoolean();
+            case T_STRING:
+                return readString(in);
+            case T_DATE:
+                return new Date(in.readLong());
+            case T_ROOM:
+                return readRoom(in);
+            case T_CUSTOMER:
+                return readCustomer(in);
+            case T_CLIENT_RESERVATION:
+                return readClientReservation(in);
+            case T_FOOD:
+                return readFood(in);
+            case T_RESERVATION:
+                return readReservation(in);
+            case T_REPORT_DATA:
+                return readReportData(in, depth + 1);
+            case T_USER:
+                return new User(readString(in), readString(in), in.readBoolean());
+            case T_FOOD_ORDER:
+                return readFoodOrder(in);
+            case T_REQUEST: {
+                Request request = new Request(readString(in), null);
+                request.setCorrelationId(in.readLong());
+                request.setKeepAlive(in.readBoolean());
+                request.setData(readValue(in, depth + 1));
+                return request;
+            }
+            case T_RESPONSE: {
+                boolean success = in.readBoolean();
+                String message = readString(in);
+                long correlationId = in.readLong();
+                Response response = new Response(readValue(in, depth + 1), message);
+                response.setSuccess(success);
+                response.setCorrelationId(correlationId);
+                return response;
+            }
+            case T_BATCH_REQUEST: {
+                boolean stopOnFailure = in.readBoolean();
+                @SuppressWarnings("unchecked")
+                List<Request> requests = (List<Request>) readValue(in, depth + 1);
+                return new BatchRequest(requests != null ? requests : new ArrayList<>(), stopOnFailure);
+            }
+            case T_EXPORT_CHUNK:
+                return new ExportChunk(in.readInt(), in.readInt(), in.readBoolean(), readString(in));
+            case T_LIST: {
+                // 항목 수는 믿지 않고 남은 바이트로만 검사 (항목마다 최소 1바이트), 목록은 읽은 만큼만 늘림
+                int size = readElementCount(in);
+                List<Object> list = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, depth + 1));
+                }
+                return list;
+            }
+            case T_MAP: {
+                // ORDER_FOOD, CHECK_IN 등에서 HashMap 으로 형 변환하므로 HashMap 계열로 복원
+                int size = readElementCount(in);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in, depth + 1);
+                    map.put(key, readValue(in, depth + 1));
+                }
+                return map;
+            }
+            case T_SERIALIZED: {
+                byte[] bytes = new byte[readElementCount(in)];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return ois.readObject();
+                }
+            }
+            default:
+                throw new StreamCorruptedException("알 수 없는 값 타입: " + tag);
+        }
+    }
+
+    // =========================================================================
+    //                            모델별 인코더 / 디코더
+    // =========================================================================
+
+    private static void writeRoom(DataOutputStream out, Room room) throws IOException {
+        out.writeInt(room.getRoomNumber());
+        writeString(out, room.getRoomType());
+        out.writeInt(room.getPrice());
+        out.writeByte(room.getStatus() == null ? -1 : room.getStatus().ordinal());
+        out.writeLong(room.getVersion());
+    }
+
+    private static Room readRoom(DataInputStream in) throws IOException {
+        Room room = new Room(in.readInt(), readString(in), in.readInt());
+        byte status = in.readByte();
+        if (status < -1 || status >= ROOM_STATUSES.length) {
+            throw new StreamCorruptedException("잘못된 객실 상태 값: " + status);
+        }
+        room.setStatus(status < 0 ? null : ROOM_STATUSES[status]);
+        room.setVersion(in.readLong());
+        return room;
+    }
+
+    private static void writeCustomer(DataOutputStream out, Customer customer) throws IOException {
+        writeString(out, customer.getCustomerId());
+        writeString(out, customer.getName());
+        writeString(out, customer.getPhoneNumber());
+        out.writeLong(customer.getVersion());
+    }
+
+    private static Customer readCustomer(DataInputStream in) throws IOException {
+        Customer customer = new Customer(readString(in), readString(in), readString(in));
+        customer.setVersion(in.readLong());
+        return customer;
+    }
+
+    private static void writeClientReservation(DataOutputStream out, ClientReservation r) throws IOException {
+        writeString(out, r.getReservationId());
+        writeString(out, r.getCustomerId());
+        out.writeInt(r.getRoomNumber());
+        writeString(out, r.getCheckInDate());
+        writeString(out, r.getCheckOutDate());
+        out.writeDouble(r.getTotalPrice());
+        writeString(out, r.getStatus());
+    }
+
+    private static ClientReservation readClientReservation(DataInputStream in) throws IOException {
+        return new ClientReservation(readString(in), readString(in), in.readInt(),
+                readString(in), readString(in), in.readDouble(), readString(in));
+    }
+
+    private static void writeFood(DataOutputStream out, Food food) throws IOException {
+        writeString(out, food.getName());
+        out.writeInt(food.getPrice());
+        writeString(out, food.getDescription());
+        out.writeInt(food.getStock());
+        out.writeLong(food.getVersion());
+    }
+
+    private static Food readFood(DataInputStream in) throws IOException {
+        Food food = new Food(readString(in), in.readInt(), readString(in), in.readInt());
+        food.setVersion(in.readLong());
+        return food;
+    }
+
+    private static void writeReservation(DataOutputStream out, Reservation r) throws IOException {
+        writeString(out, r.getReservationId());
+        writeString(out, r.getCustomerId());
+        out.writeInt(r.getRoomNumber());
+        writeString(out, r.getCheckInDate());
+        writeString(out, r.getCheckOutDate());
+        writeString(out, r.getPhone());
+        writeString(out, r.getStatus());
+        writeString(out, r.getRoomType());
+    }
+
+    private static Reservation readReservation(DataInputStream in) throws IOException {
+        return new Reservation(readString(in), readString(in), in.readInt(), readString(in),
+                readString(in), readString(in), readString(in), readString(in));
+    }
+
+    private static void writeReportData(DataOutputStream out, ReportData report) throws IOException {
+        out.writeDouble(report.getOccupancyRate());
+        out.writeDouble(report.getReservationRate());
+        out.writeDouble(report.getTotalRevenue());
+        out.writeDouble(report.getRoomRevenue());
+        out.writeDouble(report.getFnbRevenue());
+        writeValue(out, report.getPeriodDetails());
+        writeString(out, report.getExceptionReportDetails());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReportData readReportData(DataInputStream in, int depth) throws IOException, ClassNotFoundException {
+        ReportData report = new ReportData();
+        report.setOccupancyRate(in.readDouble());
+        report.setReservationRate(in.readDouble());
+        report.setTotalRevenue(in.readDouble());
+        report.setRoomRevenue(in.readDouble());
+        report.setFnbRevenue(in.readDouble());
+        report.setPeriodDetails((List<Map<String, Object>>) readValue(in, depth));
+        report.setExceptionReportDetails(readString(in));
+        return report;
+    }
+
+    private static void writeFoodOrder(DataOutputStream out, FoodOrder order) throws IOException {
+        writeString(out, order.getOrderId());
+        writeString(out, order.getCustomerId());
+        out.writeInt(order.getRoomNumber());
+        writeString(out, order.getFoodName());
+        out.writeInt(order.getCount());
+        out.writeInt(order.getTotalPrice());
+        writeString(out, order.getOrderTime());
+    }
+
+    private static FoodOrder readFoodOrder(DataInputStream in) throws IOException {
+        return new FoodOrder(readString(in), readString(in), in.readInt(), readString(in), in.readInt(), in.readInt(), readString(in));
+    }
+
+    // =========================================================================
+    //                                  기본 타입
+    // =========================================================================
+
+    /** [int UTF-8 길이 (null 이면 -1)][UTF-8 바이트] */
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > DEFAULT_MAX_FRAME_BYTES || length > in.available()) {
+            throw new StreamCorruptedException("잘못된 문자열 길이: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > DEFAULT_MAX_FRAME_BYTES) {
+            throw new StreamCorruptedException("잘못된 항목 수: " + count);
+        }
+        return count;
+    }
+
+    // 뒤따르는 항목/바이트 수 (항목마다 최소 1바이트이므로 프레임에 남은 바이트보다 많으면 손상된 값)
+    private static int readElementCount(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count > in.available()) {
+            throw new StreamCorruptedException("잘못된 항목 수: " + count + " (남은 " + in.available() + " bytes)");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,83 @@
+package cse.hotel.common.packet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 압축된 응답 데이터 (Response.resultData 자리에 담겨 전송됨)
+ * 클라이언트가 Request.acceptCompression 을 보낸 연결에서만 사용되며,
+ * Response.getResultData() 가 자동으로 압축을 풀어 원래 객체를 돌려줍니다.
+ */
+public class CompressedPayload implements Serializable {
+    private static final long serialVersionUID = 500L;
+
+    private final byte[] data;        // Deflate 로 압축된 직렬화 바이트
+    private final int originalSize;   // 압축 전 크기
+
+    public CompressedPayload(byte[] data, int originalSize) {
+        this.data = data;
+        this.originalSize = originalSize;
+    }
+
+    /**
+     * 압축을 풀고 역직렬화하여 원래 객체를 복원합니다.
+     */
+    public Object inflate() throws IOException, ClassNotFoundException {
+        byte[] raw = inflate(data, originalSize);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(raw))) {
+            return ois.readObject();
+        }
+    }
+
+    public int getCompressedSize() { return data.length; }
+    public int getOriginalSize() { return originalSize; }
+
+    // =========================================================================
+    //                       Deflate 압축 도우미 (바이너리 형식과 공용)
+    // =========================================================================
+
+    public static byte[] deflate(byte[] raw, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static byte[] inflate(byte[] compressed, int originalSize) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[originalSize];
+            int offset = 0;
+            while (offset < originalSize && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, originalSize - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                offset += n;
+            }
+            if (offset != originalSize) {
+                throw new IOException("압축 해제 크기 불일치: " + offset + "/" + originalSize);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("압축 데이터 손상: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cse.hotel.common.packet;
+
+import java.io.Serializable;
+
+/**
+ * EXPORT 명령의 응답 조각 (CSV 일부)
+ *
+ * EXPORT 요청 1개에 대해 서버는 같은 correlationId 의 응답을 여러 번 보내며,
+ * 각 응답의 resultData 가 이 객체입니다. 첫 조각의 csv 는 머리글 줄로 시작하고,
+ * last 가 true 인 조각까지 받은 뒤 csv 를 순서대로 이어 붙이면 전체 파일이 됩니다.
+ * (도중에 오류가 나면 실패 응답이 마지막으로 옵니다.)
+ */
+public class ExportChunk implements Serializable {
+    private static final long serialVersionUID = 500L;
+
+    private int sequence;   // 0 부터 시작하는 조각 번호
+    private int rows;       // 이 조각에 담긴 데이터 줄 수 (머리글 제외)
+    private boolean last;   // 마지막 조각 여부
+    private String csv;     // CSV 텍스트 (줄 끝 \r\n)
+
+    public ExportChunk(int sequence, int rows, boolean last, String csv) {
+        this.sequence = sequence;
+        this.rows = rows;
+        this.last = last;
+        this.csv = csv;
+    }
+
+    // --- Getters ---
+    public int getSequence() { return sequence; }
+    public int getRows() { return rows; }
+    public boolean isLast() { return last; }
+    public String getCsv() { return csv; }
+}
@@ -14,6 +14,16 @@ public class Request implements Serializable {
     // 명령 수행에 필요한 데이터 객체 (예: Food 객체, roomNumber int 값, String ID)
     private Object data;    
 
+    // 요청-응답 매칭용 ID (서버는 같은 값을 Response에 담아 돌려줌, 0이면 서버가 연결 내 순번을 부여)
+    private long correlationId;
+
+    // true 이면 응답 후 연결을 닫지 않고 다음 요청을 기다림 (Keep-Alive 모드)
+    // 기존 클라이언트는 이 값을 보내지 않으므로 false(1회 요청 후 종료)로 동작합니다.
+    private boolean keepAlive;
+
+    // true 이면 큰 응답을 압축해서 받을 수 있음 (한 번 보내면 해당 연결 전체에 적용)
+    private boolean acceptCompression;
+
     // --- 생성자 ---
     
     /**
@@ -43,9 +53,33 @@ public class Request implements Serializable {
     public void setData(Object data) {
         this.data = data;
     }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isAcceptCompression() {
+        return acceptCompression;
+    }
+
+    public void setAcceptCompression(boolean acceptCompression) {
+        this.acceptCompression = acceptCompression;
+    }
     
     @Override
     public String toString() {
-        return "Request{command='" + command + "', dataClass=" + (data != null ? data.getClass().getSimpleName() : "null") + '}';
+        return "Request{command='" + command + "', correlationId=" + correlationId + ", dataClass=" + (data != null ? data.getClass().getSimpleName() : "null") + '}';
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package cse.hotel.common.packet;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -12,11 +13,14 @@ public class Response implements Serializable {
     private boolean success; 
     
     // 요청 결과로 반환되는 데이터 (예: 조회된 Room 목록 List, 단일 Food 객체)
-    private Object resultData; 
+    private volatile Object resultData; 
     
     // 실패 시 오류 메시지 또는 성공 시 간단한 메시지
     private String message;  
 
+    // 이 응답이 대응하는 Request의 correlationId
+    private long correlationId;
+
     // --- 생성자 ---
     
     /**
@@ -40,6 +44,26 @@ public class Response implements Serializable {
         this.message = message;
     }
     
+    /**
+     * 동시 수정 충돌 응답을 생성합니다. (실패 + 서버에 저장된 최신 데이터)
+     * 클라이언트는 resultData 의 최신 값(버전 포함)을 확인한 뒤 다시 수정할 수 있습니다.
+     */
+    public static Response conflict(String message, Object currentData) {
+        Response response = new Response(message);
+        response.resultData = currentData;
+        return response;
+    }
+
+    /**
+     * 같은 내용을 다른 요청에 대한 응답으로 보낼 때 사용하는 복사본 (resultData 는 공유, 압축된 데이터도 풀지 않음)
+     */
+    public Response withCorrelationId(long correlationId) {
+        Response copy = new Response(resultData, message);
+        copy.success = success;
+        copy.correlationId = correlationId;
+        return copy;
+    }
+
     // --- Getters & Setters ---
     
     public boolean isSuccess() {
@@ -50,8 +74,27 @@ public class Response implements Serializable {
         this.success = success;
     }
 
+    /**
+     * 결과 데이터를 반환합니다.
+     * 서버가 압축해서 보낸 경우(CompressedPayload) 처음 호출할 때 압축을 풀어 원래 객체를 돌려줍니다.
+     */
     public Object getResultData() {
-        return resultData;
+        Object data = resultData;
+        if (data instanceof CompressedPayload) {
+            // 여러 스레드가 같은 응답(캐시된 응답 등)을 읽을 수 있으므로 한 번만 풀고 결과를 공유
+            synchronized (this) {
+                data = resultData;
+                if (data instanceof CompressedPayload compressed) {
+                    try {
+                        data = compressed.inflate();
+                    } catch (IOException | ClassNotFoundException e) {
+                        throw new IllegalStateException("압축된 응답 데이터를 복원할 수 없습니다: " + e.getMessage(), e);
+                    }
+                    resultData = data;
+                }
+            }
+        }
+        return data;
     }
 
     public void setResultData(Object resultData) {
@@ -65,4 +108,12 @@ public class Response implements Serializable {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
 }
\ No newline at end of file
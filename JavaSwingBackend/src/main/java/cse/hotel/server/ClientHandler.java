@@ -4,17 +4,42 @@ import cse.hotel.server.service.*;
 import cse.hotel.common.model.*;
 import cse.hotel.common.exception.DuplicateIdException;
 import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.exception.VersionConflictException;
+import cse.hotel.common.packet.BatchRequest;
 import cse.hotel.common.packet.Request;
 import cse.hotel.common.packet.Response;
-import cse.hotel.server.service.ReportService;
+import cse.hotel.server.service.ReportJobService;
+import cse.hotel.server.repository.PersistenceScheduler;
 import java.util.Map;
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ClientHandler implements Runnable {
 
+    // 상태를 변경하지 않는 조회 명령 (BATCH 안에서 병렬 실행 가능)
+    private static final Set<String> READ_ONLY_COMMANDS = Set.of(
+            "GET_ROOMS", "GET_CUSTOMERS", "GET_FOODS", "GET_ALL_RESERVATIONS", "GET_MY_RESERVATIONS",
+            "LOAD_RESERVATIONS", "GENERATE_REPORT", "SERVER_STATS", "SEARCH_AVAILABLE_ROOMS",
+            "REPORT_STATUS", "REPORT_RESULT");
+
+    // 응답을 여러 개(ExportChunk) 보내는 명령
+    static final String EXPORT_COMMAND = "EXPORT";
+
+    // BATCH 의 조회 요청을 병렬로 실행하는 가상 스레드 실행기
+    private static final ExecutorService batchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 0).factory());
+
     private final Socket clientSocket;
+    private final ConnectionExecutor connectionExecutor;
 
     // 싱글톤 Service 인스턴스를 미리 가져옵니다.
     private final RoomService roomService = RoomService.getInstance();
@@ -23,31 +48,93 @@ public class ClientHandler implements Runnable {
     private final ClientReservationService clientReservationService = ClientReservationService.getInstance();
     private final ReservationService reservationService = ReservationService.getInstance();
     private final UserService userService = UserService.getInstance();
-    private final ReportService reportService = ReportService.getInstance(); 
+    private final ReportJobService reportJobService = ReportJobService.getInstance();
+    private final ExportService exportService = ExportService.getInstance();
 
 
-    public ClientHandler(Socket socket) {
+    public ClientHandler(Socket socket, ConnectionExecutor connectionExecutor) {
         this.clientSocket = socket;
+        this.connectionExecutor = connectionExecutor;
+    }
+
+    /**
+     * 소켓 없이 요청 처리(handleRequest)만 수행하는 용도 (NIO 서버의 워커에서 사용)
+     */
+    ClientHandler() {
+        this(null, null);
     }
 
     @Override
     public void run() {
-        try (ObjectInputStream ois = new ObjectInputStream(clientSocket.getInputStream()); ObjectOutputStream oos = new ObjectOutputStream(clientSocket.getOutputStream())) {
-
-            // 클라이언트로부터 요청 수신
-            Request request = (Request) ois.readObject();
-            System.out.println("-> [요청 수신] 명령: " + request.getCommand());
-
-            // 요청 처리 후 응답 생성
-            Response response = handleRequest(request);
-
-            // 클라이언트에게 응답 전송
-            oos.writeObject(response);
-            System.out.println("<- [응답 전송] 상태: " + (response.isSuccess() ? "성공" : "실패"));
+        connectionExecutor.onConnectionStarted();
+        try {
+            // 다음 요청을 기다리는 최대 시간 (Keep-Alive 연결이 무한정 스레드를 점유하지 않도록)
+            clientSocket.setSoTimeout(ServerConfig.idleTimeoutMillis());
+
+            // 첫 바이트로 통신 형식(기존 직렬화 / 바이너리)을 결정합니다.
+            PacketChannel channel = PacketChannel.open(clientSocket);
+            if (channel == null) return; // 요청 없이 연결이 닫힘
+
+            long sequence = 0;
+            boolean keepAlive = true;
+            while (keepAlive) {
+                // 클라이언트로부터 요청 수신
+                Request request;
+                try {
+                    request = channel.readRequest();
+                } catch (SocketTimeoutException e) {
+                    System.out.println("연결 유휴 시간 초과로 종료: " + clientSocket.getInetAddress());
+                    break;
+                }
+                if (request == null) break; // 클라이언트가 연결을 닫음
+
+                sequence++;
+                if (request.getCorrelationId() == 0) {
+                    request.setCorrelationId(sequence);
+                }
+                keepAlive = request.isKeepAlive();
+                channel.negotiate(request);
+                System.out.println("-> [요청 수신] 명령: " + request.getCommand() + " (#" + request.getCorrelationId() + ")");
+
+                // 내보내기는 응답 여러 개로 나눠 전송
+                String command = request.getCommand();
+                if (EXPORT_COMMAND.equals(command)) {
+                    exportWithSlot(channel, request);
+                    continue;
+                }
+
+                // 자주 반복되는 조회는 데이터가 바뀌지 않았으면 캐시된 응답을 그대로 전송
+                long revision = 0;
+                if (ResponseCache.isCacheable(command)) {
+                    revision = ResponseCache.revision(command);
+                    ResponseCache.Entry cached = ResponseCache.get(command, revision);
+                    if (cached != null) {
+                        channel.writeCached(cached, request.getCorrelationId());
+                        System.out.println("<- [응답 전송] 상태: 성공, 캐시 (#" + request.getCorrelationId() + ")");
+                        continue;
+                    }
+                }
+
+                // 요청 처리 후 응답 생성
+                Response response = processRequest(request);
+                response.setCorrelationId(request.getCorrelationId());
+
+                // 클라이언트에게 응답 전송
+                ResponseCache.Entry created = ResponseCache.isCacheable(command) ? ResponseCache.put(command, revision, response) : null;
+                if (created != null) {
+                    channel.writeCached(created, request.getCorrelationId());
+                } else {
+                    channel.writeResponse(response);
+                }
+                System.out.println("<- [응답 전송] 상태: " + (response.isSuccess() ? "성공" : "실패") + " (#" + response.getCorrelationId() + ")");
+            }
 
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
             System.err.println("❌ 클라이언트 처리 중 통신 오류 또는 객체 오류: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
+            connectionExecutor.onConnectionClosed();
             try {
                 clientSocket.close();
             } catch (IOException e) {
@@ -55,10 +142,86 @@ public class ClientHandler implements Runnable {
         }
     }
 
+    /**
+     * 처리 슬롯을 얻은 뒤 요청을 처리합니다. 슬롯을 얻지 못하면 거부 응답을 반환합니다.
+     */
+    private Response processRequest(Request request) throws InterruptedException {
+        if (!connectionExecutor.tryAcquireSlot()) {
+            return new Response(ConnectionExecutor.BUSY_MESSAGE);
+        }
+        Response response;
+        try {
+            response = handleRequest(request);
+        } finally {
+            connectionExecutor.releaseSlot();
+        }
+        // always 정책이면 이 요청의 변경이 디스크에 반영된 뒤에 응답 (반영을 확인하지 못하면 성공으로 알리지 않음)
+        if (!PersistenceScheduler.getInstance().awaitDurable()) {
+            return notDurable(response);
+        }
+        return response;
+    }
+
+    /**
+     * always 정책에서 디스크 반영을 확인하지 못한 요청의 응답
+     * (메모리에는 이미 반영되었을 수 있으므로 결과를 다시 조회하도록 안내)
+     */
+    static Response notDurable(Response response) {
+        return new Response("변경 내용의 디스크 반영을 확인하지 못했습니다. 결과를 다시 조회해 확인해주세요. (" + response.getMessage() + ")");
+    }
+
+    /** 응답을 연결로 보내는 곳 (EXPORT 처럼 응답이 여러 개인 명령용) */
+    @FunctionalInterface
+    interface ResponseWriter {
+        void write(Response response) throws IOException;
+    }
+
+    // 처리 슬롯을 얻은 뒤 EXPORT 를 처리 (조각을 보내는 동안 슬롯 유지)
+    private void exportWithSlot(PacketChannel channel, Request request) throws IOException, InterruptedException {
+        if (!connectionExecutor.tryAcquireSlot()) {
+            Response busy = new Response(ConnectionExecutor.BUSY_MESSAGE);
+            busy.setCorrelationId(request.getCorrelationId());
+            channel.writeResponse(busy);
+            return;
+        }
+        try {
+            handleExport(request, channel::writeResponse);
+        } finally {
+            connectionExecutor.releaseSlot();
+        }
+    }
+
+    /**
+     * EXPORT: 요청과 같은 correlationId 의 응답(ExportChunk)을 조각마다 writer 로 보냅니다.
+     * 조건이 잘못되었거나 도중에 실패하면 실패 응답을 마지막으로 보냅니다.
+     * @throws IOException 연결에 쓰지 못한 경우 (연결을 닫아야 함)
+     */
+    @SuppressWarnings("unchecked")
+    void handleExport(Request request, ResponseWriter writer) throws IOException {
+        long correlationId = request.getCorrelationId();
+        Response failure;
+        try {
+            long rows = exportService.export((Map<String, Object>) request.getData(), chunk -> {
+                Response response = new Response(chunk, chunk.isLast() ? "내보내기 완료" : "내보내기 중");
+                response.setCorrelationId(correlationId);
+                writer.write(response);
+            });
+            System.out.println("📤 내보내기 완료: " + rows + "줄 (#" + correlationId + ")");
+            return;
+        } catch (IllegalArgumentException | ClassCastException e) {
+            failure = new Response("내보내기 실패: " + e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            failure = new Response("내보내기 중 서버 오류 발생: " + e.getMessage());
+        }
+        failure.setCorrelationId(correlationId);
+        writer.write(failure);
+    }
+
     /**
      * 요청 명령에 따라 적절한 Service 메서드를 호출하고 Response를 생성합니다.
      */
-    private Response handleRequest(Request request) {
+    Response handleRequest(Request request) {
         String command = request.getCommand();
         Object data = request.getData();
 
@@ -116,8 +279,8 @@ public class ClientHandler implements Runnable {
 
                 case "UPDATE_FOOD":
                     // UPDATE_FOOD 명령 추가 (FoodUI에서 사용됨)
-                    foodService.updateFood((Food) data);
-                    return new Response(null, "식음료 수정 성공");
+                    Food updatedFood = foodService.updateFood((Food) data);
+                    return new Response(updatedFood, "식음료 수정 성공");
 
                 case "DELETE_FOOD":
                     // Object data를 String 타입 (ID)으로 형 변환하여 메서드에 전달
@@ -132,9 +295,9 @@ public class ClientHandler implements Runnable {
                         java.util.HashMap<String, Object> orderMap = (java.util.HashMap<String, Object>) data;
 
                         // [수정] 서비스의 processOrder 호출 (재고 차감 & 저장 다 해줌)
-                        foodService.processOrder(orderMap);
+                        FoodOrder order = foodService.processOrder(orderMap);
 
-                        return new Response(null, "주문이 완료되었습니다.");
+                        return new Response(order, "주문이 완료되었습니다.");
 
                     } catch (Exception e) {
                         // 재고 부족 시 에러 메시지 반환
@@ -151,8 +314,8 @@ public class ClientHandler implements Runnable {
                     return new Response(savedCustomer, "고객 등록 성공");
 
                 case "UPDATE_CUSTOMER":
-                    customerService.updateCustomer((Customer) data);
-                    return new Response(null, "고객 정보 수정 성공");
+                    Customer updatedCustomer = customerService.updateCustomer((Customer) data);
+                    return new Response(updatedCustomer, "고객 정보 수정 성공");
 
                 // --- 체크인 처리 (관리자 vs 고객 구분) ---
                 case "CHECK_IN":
@@ -214,8 +377,8 @@ public class ClientHandler implements Runnable {
                     return new Response(null, "객실 등록 성공");
 
                 case "UPDATE_ROOM":
-                    roomService.updateRoom((Room) data);
-                    return new Response(null, "객실 수정 성공");
+                    Room updatedRoom = roomService.updateRoom((Room) data);
+                    return new Response(updatedRoom, "객실 수정 성공");
 
                 case "DELETE_ROOM":
                     // Room은 ID가 int이므로 int로 형 변환 필요
@@ -225,7 +388,8 @@ public class ClientHandler implements Runnable {
                 case "GENERATE_REPORT":
                     try {
                         Map<String, Object> reportParams = (Map<String, Object>) data;
-                        ReportData reportData = reportService.generateReport(reportParams);
+                        // 같은 보고서가 생성 중이면 그 결과를 함께 사용
+                        ReportData reportData = reportJobService.generate(reportParams);
                         
                         if (reportData == null) {
                             System.out.println("⚠️ 경고: ReportService가 null을 반환했습니다.");
@@ -237,15 +401,27 @@ public class ClientHandler implements Runnable {
                         return new Response(null, "보고서 생성 중 서버 오류 발생: " + e.getMessage());
                     }
 
-                    
-                
+
+                // --- 비동기 보고서 (작업 ID 를 바로 받고, 상태/결과는 따로 조회) ---
+                case "GENERATE_REPORT_ASYNC":
+                    Map<String, Object> jobParams = paramsOf(data);
+                    if (jobParams == null) {
+                        return new Response("보고서 작업 접수 실패: 보고서 조건(Map)이 필요합니다.");
+                    }
+                    return new Response(reportJobService.submit(jobParams), "보고서 작업 접수");
+
+                case "REPORT_STATUS":
+                    return new Response(reportJobService.status((String) data), "보고서 작업 상태 조회 성공");
+
+                case "REPORT_RESULT":
+                    return new Response(reportJobService.result((String) data), "보고서 생성 성공");
 
                 case "MAKE_RESERVATION":
                     ClientReservation reqRes = (ClientReservation) data;
                     System.out.println("-> 예약 요청 수신: " + reqRes.getCustomerId() + ", 방: " + reqRes.getRoomNumber());
 
                     try {
-                        // 1. 예약 정보 저장 (이게 없으면 '내 예약'에 안 뜸)
+                        // 예약 저장 + 방 상태 '예약됨' 변경을 한 번에 (둘 중 하나만 반영되는 일이 없도록)
                         ClientReservation savedRes = clientReservationService.makeReservation(
                                 reqRes.getCustomerId(),
                                 reqRes.getRoomNumber(),
@@ -254,9 +430,6 @@ public class ClientHandler implements Runnable {
                                 reqRes.getTotalPrice()
                         );
 
-                        // 2. [중요] 방 상태 변경 (이게 없으면 방이 계속 '빈 방'으로 나옴)
-                        roomService.reserveRoom(reqRes.getRoomNumber());
-
                         return new Response(savedRes, "예약 성공!");
 
                     } catch (Exception e) {
@@ -264,6 +437,18 @@ public class ClientHandler implements Runnable {
                         return new Response("예약 실패: " + e.getMessage());
                     }
 
+                // 기간/타입/가격 조건으로 예약 가능한 객실 검색
+                case "SEARCH_AVAILABLE_ROOMS":
+                    if (!(data instanceof Map<?, ?> searchParams)) {
+                        return new Response("검색 실패: 검색 조건(Map)이 필요합니다.");
+                    }
+                    try {
+                        List<Room> availableRooms = roomService.searchAvailableRooms(searchParams);
+                        return new Response(availableRooms, "예약 가능한 객실 " + availableRooms.size() + "개");
+                    } catch (IllegalArgumentException e) {
+                        return new Response("검색 실패: " + e.getMessage());
+                    }
+
                 // 사용자 기준_ 예약 목록 조회
                 case "GET_MY_RESERVATIONS":
                     String custId = (String) data; // 고객 ID가 넘어옴
@@ -280,29 +465,150 @@ public class ClientHandler implements Runnable {
                 case "CANCEL_CLIENT_RESERVATION":
                     String ClientResId = (String) data; // 예약 ID가 넘어옴
                     try {
-                        // 1) 예약 상태 취소하고 방 번호 받아오기
-                        int roomNum = clientReservationService.cancelReservation(ClientResId);
-
-                        // 2) 해당 방을 다시 '빈 방'으로 만들기
-                        roomService.cancelBooking(roomNum);
+                        // 예약 취소 + 방을 다시 '빈 방'으로 (한 번에 기록)
+                        clientReservationService.cancelReservation(ClientResId);
 
                         return new Response(null, "예약이 정상적으로 취소되었습니다.");
                     } catch (Exception e) {
                         return new Response("취소 실패: " + e.getMessage());
                     }
 
+                // 응답을 여러 개 보내는 명령이므로 연결 루프에서 따로 처리 (BATCH 안에서는 사용 불가)
+                case EXPORT_COMMAND:
+                    return new Response("EXPORT 는 단독 요청으로만 사용할 수 있습니다.");
+
+                // --- 여러 요청을 한 번에 처리 (결과는 요청 순서대로 List<Response>) ---
+                case "BATCH":
+                    return handleBatch(data);
+
+                // --- 서버 상태 (연결 실행기 등 구성요소 지표) ---
+                case "SERVER_STATS":
+                    return new Response(ServerMetrics.snapshot(), "서버 상태 조회 성공");
+
                 // --- 기본 ---
                 default:
                     return new Response("알 수 없는 요청 명령입니다.");
             }
         } // --- Service 예외 처리 (실패 응답 생성) ---
-        catch (DuplicateIdException | DataNotFoundException | IllegalArgumentException e) {
+        catch (DuplicateIdException | DataNotFoundException | IllegalArgumentException | IllegalStateException e) {
             // 비즈니스 로직 예외는 실패 메시지로 클라이언트에게 전달
             return new Response(e.getMessage());
+        } catch (VersionConflictException e) {
+            // 동시 수정 충돌: 서버의 최신 데이터를 함께 보내 다시 수정할 수 있게 함
+            return Response.conflict(e.getMessage(), e.getCurrent());
         } catch (Exception e) {
             // 예상치 못한 서버 내부 오류 (NullPointer, ClassCast 등)
             e.printStackTrace();
             return new Response("서버 내부 처리 중 알 수 없는 오류 발생: " + e.getMessage());
         }
     }
+
+    /**
+     * BATCH 요청을 처리합니다.
+     * 연속된 조회 요청은 병렬로, 변경 요청은 순서대로 하나씩 실행하며
+     * stopOnFailure 이면 첫 실패 이후의 요청은 실행하지 않습니다.
+     */
+    private Response handleBatch(Object data) throws InterruptedException {
+        List<Request> requests = new ArrayList<>();
+        boolean stopOnFailure = false;
+
+        if (data instanceof BatchRequest batch) {
+            stopOnFailure = batch.isStopOnFailure();
+            if (batch.getRequests() != null) requests.addAll(batch.getRequests());
+        } else if (data instanceof List<?> list) {
+            for (Object o : list) {
+                if (!(o instanceof Request)) {
+                    return new Response("BATCH 요청 형식 오류: 목록에 Request 가 아닌 항목이 있습니다.");
+                }
+                requests.add((Request) o);
+            }
+        } else {
+            return new Response("BATCH 요청 형식 오류: BatchRequest 또는 List<Request> 가 필요합니다.");
+        }
+
+        if (requests.size() > ServerConfig.maxBatchSize()) {
+            return new Response("BATCH 요청은 최대 " + ServerConfig.maxBatchSize() + "건까지 가능합니다.");
+        }
+
+        List<Response> results = new ArrayList<>(requests.size());
+        boolean failed = false;
+        int i = 0;
+        while (i < requests.size()) {
+            if (failed && stopOnFailure) {
+                results.add(skipped(requests.get(i)));
+                i++;
+                continue;
+            }
+
+            Request first = requests.get(i);
+            if (!isReadOnly(first)) {
+                // 변경 요청: 순서대로 하나씩 실행
+                Response response = handleSubRequest(first);
+                results.add(response);
+                failed |= !response.isSuccess();
+                i++;
+                continue;
+            }
+
+            // 연속된 조회 요청 묶음: 병렬 실행 후 순서대로 결과 수집
+            int end = i;
+            while (end < requests.size() && isReadOnly(requests.get(end))) end++;
+
+            if (end - i == 1) {
+                Response response = handleSubRequest(first);
+                results.add(response);
+                failed |= !response.isSuccess();
+            } else {
+                List<Future<Response>> futures = new ArrayList<>(end - i);
+                for (int j = i; j < end; j++) {
+                    Request sub = requests.get(j);
+                    futures.add(batchExecutor.submit(() -> handleSubRequest(sub)));
+                }
+                for (Future<Response> future : futures) {
+                    Response response;
+                    try {
+                        response = future.get();
+                    } catch (ExecutionException e) {
+                        response = new Response("서버 내부 처리 중 알 수 없는 오류 발생: " + e.getCause());
+                    }
+                    results.add(response);
+                    failed |= !response.isSuccess();
+                }
+            }
+            i = end;
+        }
+
+        long failures = results.stream().filter(r -> !r.isSuccess()).count();
+        return new Response(results, "BATCH 처리 완료 (" + results.size() + "건 중 실패 " + failures + "건)");
+    }
+
+    private static boolean isReadOnly(Request request) {
+        return request != null && READ_ONLY_COMMANDS.contains(request.getCommand());
+    }
+
+    private Response handleSubRequest(Request request) {
+        if (request == null || request.getCommand() == null) {
+            return new Response("BATCH 요청 형식 오류: 명령이 없습니다.");
+        }
+        if ("BATCH".equals(request.getCommand())) {
+            return new Response("BATCH 안에 BATCH 를 넣을 수 없습니다.");
+        }
+        Response response = handleRequest(request);
+        response.setCorrelationId(request.getCorrelationId());
+        return response;
+    }
+
+    // Map 으로 온 요청 데이터를 문자열 키 Map 으로 복사 (Map 이 아니면 null)
+    private static Map<String, Object> paramsOf(Object data) {
+        if (!(data instanceof Map<?, ?> map)) return null;
+        Map<String, Object> params = new HashMap<>();
+        map.forEach((key, value) -> params.put(String.valueOf(key), value));
+        return params;
+    }
+
+    private static Response skipped(Request request) {
+        Response response = new Response("이전 요청이 실패하여 실행하지 않았습니다.");
+        if (request != null) response.setCorrelationId(request.getCorrelationId());
+        return response;
+    }
 }
@@ -0,0 +1,195 @@
+package cse.hotel.server;
+
+import cse.hotel.common.packet.Request;
+import cse.hotel.common.packet.Response;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 클라이언트 연결 실행기 (Admission Control 포함)
+ * - VIRTUAL : 연결마다 가상 스레드 1개 (기본값, 체크아웃 시간대처럼 접속이 몰려도 OS 스레드가 늘지 않음)
+ * - PLATFORM: 연결마다 플랫폼 스레드 1개 (기존 new Thread 방식)
+ *
+ * 동시에 처리되는 요청 수는 maxInFlight 로 제한되며,
+ * 처리 대기열(아직 시작되지 않은 연결 + 슬롯을 기다리는 요청)이 가득 차면
+ * 새 연결에는 실패 Response 를 보내고 닫습니다.
+ */
+public final class ConnectionExecutor {
+
+    public enum Mode { VIRTUAL, PLATFORM }
+
+    static final String BUSY_MESSAGE = "서버 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.";
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final int acceptQueueCapacity;
+    private final long admissionTimeoutMillis;
+
+    // 수락했지만 아직 핸들러가 시작되지 않은 연결 수
+    private final AtomicInteger pendingConnections = new AtomicInteger();
+    // 처리 슬롯을 기다리고 있는 요청 수
+    private final AtomicInteger waitingRequests = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+
+    public ConnectionExecutor(Mode mode, int maxInFlight, int acceptQueueCapacity, long admissionTimeoutMillis) {
+        if (maxInFlight <= 0 || acceptQueueCapacity < 0) {
+            throw new IllegalArgumentException("maxInFlight 는 1 이상, acceptQueue 는 0 이상이어야 합니다.");
+        }
+        this.mode = mode;
+        this.maxInFlight = maxInFlight;
+        this.acceptQueueCapacity = acceptQueueCapacity;
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        this.inFlightPermits = new Semaphore(maxInFlight, true);
+
+        if (mode == Mode.VIRTUAL) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("client-", 0).factory());
+        } else {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("client-", 0).factory());
+        }
+        ServerMetrics.register("executor", this::getStats);
+    }
+
+    /**
+     * ServerConfig 옵션(--executor, --max-inflight, --accept-queue, --admission-timeout-ms)으로 생성합니다.
+     */
+    public static ConnectionExecutor fromConfig() {
+        Mode mode = "platform".equalsIgnoreCase(ServerConfig.executorMode()) ? Mode.PLATFORM : Mode.VIRTUAL;
+        return new ConnectionExecutor(mode,
+                ServerConfig.maxInFlight(),
+                ServerConfig.acceptQueueCapacity(),
+                ServerConfig.admissionTimeoutMillis());
+    }
+
+    // =========================================================================
+    //                            연결 수락 / 거부
+    // =========================================================================
+
+    /**
+     * 수락된 소켓을 ClientHandler 로 실행합니다.
+     * 대기열이 가득 찼다면 실패 응답을 보내고 연결을 닫습니다.
+     */
+    public void submit(Socket socket) {
+        int depth = pendingConnections.incrementAndGet() + waitingRequests.get();
+        if (depth > acceptQueueCapacity) {
+            pendingConnections.decrementAndGet();
+            reject(socket);
+            return;
+        }
+
+        try {
+            executor.execute(new ClientHandler(socket, this));
+            acceptedCount.increment();
+        } catch (RejectedExecutionException e) {
+            pendingConnections.decrementAndGet();
+            reject(socket);
+        }
+    }
+
+    private void reject(Socket socket) {
+        rejectedConnections.increment();
+        System.err.println("⚠️ 서버 포화로 연결 거부 (누적 " + rejectedConnections.sum() + "건, 대기열 " + getQueueDepth() + ")");
+
+        // 클라이언트가 보낸 요청을 읽고 나서 응답해야 RST 없이 응답이 전달됩니다.
+        // accept 루프가 막히지 않도록 별도의 가상 스레드에서 처리합니다.
+        Thread.ofVirtual().name("client-reject").start(() -> {
+            try (Socket s = socket) {
+                s.setSoTimeout(1000);
+                PacketChannel channel = PacketChannel.open(s);
+                if (channel == null) return;
+                Request request = channel.readRequest();
+                Response busy = new Response(BUSY_MESSAGE);
+                if (request != null) busy.setCorrelationId(request.getCorrelationId());
+                channel.writeResponse(busy);
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                /* 거부 응답 전송 실패는 무시 */
+            }
+        });
+    }
+
+    // =========================================================================
+    //                    ClientHandler 가 호출하는 수명주기 / 슬롯 관리
+    // =========================================================================
+
+    void onConnectionStarted() {
+        pendingConnections.decrementAndGet();
+        activeConnections.incrementAndGet();
+    }
+
+    void onConnectionClosed() {
+        activeConnections.decrementAndGet();
+    }
+
+    /**
+     * 요청 처리 슬롯을 획득합니다.
+     * @return admissionTimeout 안에 슬롯을 얻지 못하면 false (요청은 거부되어야 함)
+     */
+    boolean tryAcquireSlot() throws InterruptedException {
+        waitingRequests.incrementAndGet();
+        try {
+            boolean acquired = inFlightPermits.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (!acquired) rejectedRequests.increment();
+            return acquired;
+        } finally {
+            waitingRequests.decrementAndGet();
+        }
+    }
+
+    void releaseSlot() {
+        inFlightPermits.release();
+    }
+
+    // =========================================================================
+    //                                 상태 조회
+    // =========================================================================
+
+    /** 아직 시작되지 않은 연결 + 처리 슬롯을 기다리는 요청 수 */
+    public int getQueueDepth() {
+        return pendingConnections.get() + waitingRequests.get();
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
+
+    public long getRejectedConnections() {
+        return rejectedConnections.sum();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /** SERVER_STATS 명령에서 사용하는 지표 (ServerMetrics 에 등록됨) */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executor.mode", mode.name());
+        stats.put("executor.maxInFlight", maxInFlight);
+        stats.put("executor.acceptQueueCapacity", acceptQueueCapacity);
+        stats.put("executor.activeConnections", activeConnections.get());
+        stats.put("executor.inFlight", getInFlight());
+        stats.put("executor.queueDepth", getQueueDepth());
+        stats.put("executor.accepted", acceptedCount.sum());
+        stats.put("executor.rejectedConnections", getRejectedConnections());
+        stats.put("executor.rejectedRequests", getRejectedRequests());
+        return stats;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
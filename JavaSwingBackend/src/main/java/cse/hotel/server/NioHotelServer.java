@@ -0,0 +1,485 @@
+package cse.hotel.server;
+
+import cse.hotel.common.packet.BinaryCodec;
+import cse.hotel.common.packet.Request;
+import cse.hotel.common.packet.Response;
+import cse.hotel.server.repository.PersistenceScheduler;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking(NIO) 서버 모드 (--mode=nio)
+ * Selector 스레드 1개가 모든 연결의 입출력을 담당하고,
+ * 완성된 요청만 작은 워커 풀에서 ClientHandler.handleRequest 로 처리합니다.
+ * 로비 디스플레이/태블릿처럼 연결만 유지한 채 대부분 유휴 상태인 클라이언트가 많아도
+ * 연결당 스레드가 필요 없습니다.
+ *
+ * 프레임 형식 (요청/응답 동일)
+ *   [4바이트 길이 (big-endian)][Java 직렬화된 Request 또는 Response]
+ * 연결의 첫 바이트가 BinaryCodec.HANDSHAKE 이면 이후 프레임은 BinaryCodec 형식을 사용합니다.
+ * 한 연결에서 여러 요청을 연속으로 보낼 수 있으며, 응답은 요청 순서대로 전송됩니다.
+ * (EXPORT 는 한 요청에 같은 correlationId 의 응답을 여러 개 보냅니다.)
+ */
+public final class NioHotelServer {
+
+    // 여러 응답을 보내는 명령(EXPORT)에서 한 연결의 쓰기 대기열에 쌓아 둘 최대 응답 수
+    private static final int STREAM_WINDOW = 4;
+
+    private final int port;
+    private final int maxFrameBytes;
+    // 내보내기 조각을 더 보내지 못하고 기다릴 수 있는 최대 시간 (넘으면 연결을 닫음)
+    private final long exportStallMillis;
+    private final ThreadPoolExecutor workers;
+    private final ClientHandler dispatcher = new ClientHandler();
+
+    private Selector selector;
+    // 워커 스레드가 Selector 스레드에 요청하는 작업 (쓰기 관심 등록 등)
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAdder framesIn = new LongAdder();
+    private final LongAdder framesOut = new LongAdder();
+    private final LongAdder rejectedFrames = new LongAdder();
+    private final LongAdder exportStalls = new LongAdder();
+
+    public NioHotelServer(int port, int workerCount, int queueCapacity, int maxFrameBytes, long exportStallMillis) {
+        this.port = port;
+        this.maxFrameBytes = maxFrameBytes;
+        this.exportStallMillis = exportStallMillis;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("nio-worker-", 0).factory());
+        ServerMetrics.register("nio", this::getStats);
+    }
+
+    /**
+     * ServerConfig 옵션(--port, --nio-workers, --accept-queue, --max-frame-bytes, --export-stall-timeout-ms)으로 생성합니다.
+     */
+    public static NioHotelServer fromConfig() {
+        return new NioHotelServer(ServerConfig.port(),
+                ServerConfig.nioWorkers(),
+                ServerConfig.acceptQueueCapacity(),
+                ServerConfig.maxFrameBytes(),
+                ServerConfig.exportStallTimeoutMillis());
+    }
+
+    /**
+     * Selector 루프를 실행합니다. (반환하지 않음)
+     */
+    public void serve() throws IOException {
+        selector = Selector.open();
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("NIO server is listening. port: " + port + ", workers: " + workers.getCorePoolSize());
+
+            while (true) {
+                selector.select();
+
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) {
+                            accept(serverChannel);
+                        } else {
+                            if (key.isReadable()) read(key);
+                            if (key.isValid() && key.isWritable()) write(key);
+                        }
+                    } catch (IOException e) {
+                        close(key);
+                    }
+                }
+            }
+        }
+    }
+
+    // =========================================================================
+    //                        Selector 스레드에서 실행되는 부분
+    // =========================================================================
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(key));
+            openConnections.incrementAndGet();
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+
+        int n = channel.read(conn.readBuffer);
+        if (n < 0) {
+            close(key);
+            return;
+        }
+
+        conn.readBuffer.flip();
+
+        // 첫 바이트로 통신 형식 결정 (HANDSHAKE 이면 바이너리, 아니면 Java 직렬화 프레임)
+        if (conn.binary == null && conn.readBuffer.hasRemaining()) {
+            conn.binary = conn.readBuffer.get(conn.readBuffer.position()) == BinaryCodec.HANDSHAKE;
+            if (conn.binary) conn.readBuffer.get();
+        }
+
+        // 버퍼에 완성된 프레임이 있으면 모두 꺼냅니다.
+        while (conn.readBuffer.remaining() >= 4) {
+            int length = conn.readBuffer.getInt(conn.readBuffer.position());
+            if (length < 0 || length > maxFrameBytes) {
+                System.err.println("❌ 잘못된 프레임 길이(" + length + ")로 연결 종료: " + channel.getRemoteAddress());
+                close(key);
+                return;
+            }
+            if (conn.readBuffer.remaining() < 4 + length) {
+                break;
+            }
+            conn.readBuffer.getInt();
+            byte[] frame = new byte[length];
+            conn.readBuffer.get(frame);
+            framesIn.increment();
+            conn.enqueueRequest(frame);
+        }
+        conn.readBuffer.compact();
+
+        // 다음 프레임이 현재 버퍼보다 크면 버퍼를 키웁니다.
+        if (conn.readBuffer.position() >= 4) {
+            int length = conn.readBuffer.getInt(0);
+            if (length + 4 > conn.readBuffer.capacity()) {
+                ByteBuffer bigger = ByteBuffer.allocate(length + 4);
+                conn.readBuffer.flip();
+                bigger.put(conn.readBuffer);
+                conn.readBuffer = bigger;
+            }
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+
+        ByteBuffer buf;
+        while ((buf = conn.writeQueue.peek()) != null) {
+            channel.write(buf);
+            if (buf.hasRemaining()) {
+                return; // 소켓 송신 버퍼가 가득 참. 다음 OP_WRITE 에서 이어서 전송
+            }
+            conn.writeQueue.poll();
+            conn.signalDrained();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    private void close(SelectionKey key) {
+        if (key.attachment() instanceof Connection conn && conn.closed.compareAndSet(false, true)) {
+            openConnections.decrementAndGet();
+            conn.signalDrained();
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            /* 무시 */ }
+    }
+
+    // =========================================================================
+    //                            워커 스레드에서 실행되는 부분
+    // =========================================================================
+
+    /**
+     * 요청 프레임 1개를 처리합니다.
+     * @return 보낼 응답, 캐시된 응답을 이미 보냈으면 null
+     */
+    private Response process(Connection conn, byte[] frame) {
+        Request request;
+        try {
+            request = conn.binary ? BinaryCodec.decodeRequest(frame) : deserializeRequest(frame);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            return new Response("요청 패킷을 해석할 수 없습니다: " + e.getMessage());
+        }
+        if (request.isAcceptCompression()) {
+            conn.compressionAccepted = true;
+        }
+
+        // 내보내기는 응답 여러 개로 나눠 전송 (보낸 만큼 대기열이 줄어야 다음 조각을 만듦)
+        String command = request.getCommand();
+        if (ClientHandler.EXPORT_COMMAND.equals(command)) {
+            try {
+                dispatcher.handleExport(request, conn::replyStreaming);
+            } catch (IOException e) {
+                System.err.println("❌ 내보내기 중단: " + e.getMessage());
+            }
+            return null;
+        }
+
+        // 자주 반복되는 조회는 데이터가 바뀌지 않았으면 캐시된 응답을 그대로 전송
+        boolean cacheable = ResponseCache.isCacheable(command);
+        long revision = cacheable ? ResponseCache.revision(command) : 0;
+        if (cacheable) {
+            ResponseCache.Entry cached = ResponseCache.get(command, revision);
+            if (cached != null) {
+                conn.replyCached(cached, request.getCorrelationId());
+                return null;
+            }
+        }
+
+        Response response = dispatcher.handleRequest(request);
+        response.setCorrelationId(request.getCorrelationId());
+        // always 정책이면 이 요청의 변경이 디스크에 반영된 뒤에 응답 (반영을 확인하지 못하면 성공으로 알리지 않음)
+        boolean durable;
+        try {
+            durable = PersistenceScheduler.getInstance().awaitDurable();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            durable = false;
+        }
+        if (!durable) {
+            response = ClientHandler.notDurable(response);
+            response.setCorrelationId(request.getCorrelationId());
+        }
+        ResponseCache.Entry created = cacheable ? ResponseCache.put(command, revision, response) : null;
+        if (created != null) {
+            conn.replyCached(created, request.getCorrelationId());
+            return null;
+        }
+        return response;
+    }
+
+    private static Request deserializeRequest(byte[] frame) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(frame))) {
+            return (Request) ois.readObject();
+        }
+    }
+
+    private static ByteBuffer encodeFrame(Response response, boolean binary, boolean compressionAccepted) throws IOException {
+        if (binary) {
+            return ByteBuffer.wrap(PayloadCompressor.encodeBinaryFrame(response, compressionAccepted));
+        }
+        if (compressionAccepted) {
+            response = PayloadCompressor.compressForLegacy(response);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        bos.write(new byte[4]); // 길이 자리
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(response);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bos.toByteArray());
+        buf.putInt(0, buf.capacity() - 4);
+        return buf;
+    }
+
+    // =========================================================================
+    //                                  연결 상태
+    // =========================================================================
+
+    /**
+     * NIO 연결 1개의 상태.
+     * 같은 연결의 요청은 한 번에 하나씩 워커에서 처리되므로 응답 순서가 요청 순서와 같습니다.
+     */
+    private final class Connection {
+        private final SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(8 * 1024);
+        private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // 통신 형식 (첫 바이트를 받기 전에는 null)
+        private volatile Boolean binary;
+        // 클라이언트가 압축된 응답을 허용했는지 (워커에서만 접근)
+        private boolean compressionAccepted;
+
+        // 아직 처리되지 않은 요청 프레임 (inbox 자체를 잠금으로 사용)
+        private final ArrayDeque<byte[]> inbox = new ArrayDeque<>();
+        private boolean processing;
+
+        // 쓰기 대기열이 줄거나 연결이 닫히면 알림 (replyStreaming 이 기다리는 동안만 streamWaiting = true)
+        private final Object drained = new Object();
+        private volatile boolean streamWaiting;
+
+        Connection(SelectionKey key) {
+            this.key = key;
+        }
+
+        /** Selector 스레드: 완성된 요청 프레임을 받아 워커에 넘깁니다. */
+        void enqueueRequest(byte[] frame) {
+            synchronized (inbox) {
+                inbox.add(frame);
+                if (processing) return;
+                processing = true;
+            }
+            try {
+                workers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 워커 대기열이 가득 참: 요청을 처리하지 않고 거부 응답만 보냅니다.
+                byte[] dropped;
+                synchronized (inbox) {
+                    dropped = inbox.poll();
+                    processing = false;
+                }
+                if (dropped != null) {
+                    rejectedFrames.increment();
+                    reply(new Response(ConnectionExecutor.BUSY_MESSAGE));
+                }
+            }
+        }
+
+        /** 워커 스레드: 이 연결에 쌓인 요청을 순서대로 처리합니다. */
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                synchronized (inbox) {
+                    frame = inbox.poll();
+                    if (frame == null) {
+                        processing = false;
+                        return;
+                    }
+                }
+                if (closed.get()) continue;
+                try {
+                    Response response = process(this, frame);
+                    if (response != null) reply(response);
+                } catch (Throwable t) {
+                    // 처리 중 예상하지 못한 오류: 남은 요청은 버리고 연결을 닫음 (processing 이 true 로 남아 연결이 멈추지 않도록)
+                    System.err.println("❌ 요청 처리 중 오류로 연결을 닫습니다: " + t);
+                    synchronized (inbox) {
+                        inbox.clear();
+                        processing = false;
+                    }
+                    selectorTasks.add(() -> close(key));
+                    selector.wakeup();
+                    return;
+                }
+            }
+        }
+
+        private void reply(Response response) {
+            try {
+                writeQueue.add(encodeFrame(response, binary, compressionAccepted));
+                framesOut.increment();
+            } catch (IOException e) {
+                System.err.println("❌ 응답 직렬화 실패: " + e.getMessage());
+                return;
+            }
+            requestWrite();
+        }
+
+        /**
+         * 쓰기 대기열이 STREAM_WINDOW 개 아래로 줄 때까지 기다린 뒤 응답 전송 (느린 클라이언트에게 조각이 쌓이지 않도록)
+         * Selector 스레드가 대기열을 보낼 때마다 깨우며, exportStallMillis 동안 줄지 않으면 연결을 닫고 중단합니다.
+         */
+        private void replyStreaming(Response response) throws IOException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exportStallMillis);
+            synchronized (drained) {
+                // 대기열 크기를 보기 전에 표시해야 Selector 스레드의 알림을 놓치지 않음
+                streamWaiting = true;
+                try {
+                    while (writeQueue.size() >= STREAM_WINDOW && !closed.get()) {
+                        long left = deadline - System.nanoTime();
+                        if (left <= 0) {
+                            exportStalls.increment();
+                            selectorTasks.add(() -> close(key));
+                            selector.wakeup();
+                            throw new IOException("클라이언트가 " + exportStallMillis + "ms 동안 응답을 받지 않아 연결을 닫습니다.");
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(drained, left);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("내보내기 전송 대기가 중단되었습니다.");
+                } finally {
+                    streamWaiting = false;
+                }
+            }
+            if (closed.get()) {
+                throw new IOException("연결이 닫혔습니다.");
+            }
+            reply(response);
+        }
+
+        /** Selector 스레드: 대기열을 보냈거나 연결을 닫았을 때 기다리는 내보내기를 깨웁니다. */
+        void signalDrained() {
+            if (!streamWaiting) return;
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+
+        /** 캐시된 응답 전송 (바이너리면 캐시된 본문 배열을 복사 없이 그대로 큐에 넣음) */
+        private void replyCached(ResponseCache.Entry entry, long correlationId) {
+            try {
+                if (binary) {
+                    for (byte[] part : entry.binaryFrame(correlationId, compressionAccepted)) {
+                        writeQueue.add(ByteBuffer.wrap(part).asReadOnlyBuffer());
+                    }
+                } else {
+                    writeQueue.add(encodeFrame(entry.legacyResponse(correlationId, compressionAccepted), false, false));
+                }
+                framesOut.increment();
+            } catch (IOException e) {
+                System.err.println("❌ 응답 직렬화 실패: " + e.getMessage());
+                return;
+            }
+            requestWrite();
+        }
+
+        private void requestWrite() {
+            selectorTasks.add(() -> {
+                if (key.isValid()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                }
+            });
+            selector.wakeup();
+        }
+    }
+
+    // =========================================================================
+    //                                 상태 조회
+    // =========================================================================
+
+    /** SERVER_STATS 명령에서 사용하는 지표 (ServerMetrics 에 등록됨) */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nio.openConnections", openConnections.get());
+        stats.put("nio.workers", workers.getCorePoolSize());
+        stats.put("nio.activeWorkers", workers.getActiveCount());
+        stats.put("nio.queueDepth", workers.getQueue().size());
+        stats.put("nio.framesIn", framesIn.sum());
+        stats.put("nio.framesOut", framesOut.sum());
+        stats.put("nio.rejectedFrames", rejectedFrames.sum());
+        stats.put("nio.exportStalls", exportStalls.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,180 @@
+package cse.hotel.server;
+
+import cse.hotel.common.packet.BinaryCodec;
+import cse.hotel.common.packet.Request;
+import cse.hotel.common.packet.Response;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 연결 1개의 요청/응답 입출력 방식
+ * 클라이언트가 보낸 첫 바이트로 통신 형식을 결정합니다.
+ * - BinaryCodec.HANDSHAKE : 바이너리 형식 (BinaryCodec)
+ * - 그 외 (0xAC)          : 기존 Java 직렬화 (ObjectInputStream / ObjectOutputStream)
+ */
+abstract class PacketChannel {
+
+    private static final LongAdder legacyConnections = new LongAdder();
+    private static final LongAdder binaryConnections = new LongAdder();
+
+    static {
+        ServerMetrics.register("protocol", PacketChannel::getStats);
+    }
+
+    // 클라이언트가 압축된 응답을 허용했는지 (한 번 허용하면 연결이 끝날 때까지 유지)
+    protected boolean compressionAccepted;
+
+    /**
+     * 첫 바이트를 확인해 알맞은 PacketChannel 을 엽니다.
+     * @return 첫 바이트를 받기 전에 연결이 닫히면 null
+     */
+    static PacketChannel open(Socket socket) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+
+        in.mark(1);
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        if ((byte) first == BinaryCodec.HANDSHAKE) {
+            binaryConnections.increment();
+            return new Binary(in, out);
+        }
+        in.reset();
+        legacyConnections.increment();
+        return new Legacy(in, out);
+    }
+
+    /** 통신 형식 이름 (로그용) */
+    abstract String protocol();
+
+    /**
+     * 요청의 압축 허용 여부를 연결에 반영합니다.
+     */
+    void negotiate(Request request) {
+        if (request.isAcceptCompression()) {
+            compressionAccepted = true;
+        }
+    }
+
+    /**
+     * 다음 요청을 읽습니다.
+     * @return 클라이언트가 연결을 닫았으면 null
+     */
+    abstract Request readRequest() throws IOException, ClassNotFoundException;
+
+    /** 응답을 보내고 flush 합니다. */
+    abstract void writeResponse(Response response) throws IOException;
+
+    /** 캐시된 응답을 이 요청의 correlationId 로 보내고 flush 합니다. */
+    abstract void writeCached(ResponseCache.Entry entry, long correlationId) throws IOException;
+
+    static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("protocol.legacyConnections", legacyConnections.sum());
+        stats.put("protocol.binaryConnections", binaryConnections.sum());
+        return stats;
+    }
+
+    // =========================================================================
+    //                               기존 Java 직렬화
+    // =========================================================================
+
+    private static final class Legacy extends PacketChannel {
+        private final ObjectInputStream ois;
+        private final ObjectOutputStream oos;
+
+        Legacy(InputStream in, OutputStream out) throws IOException {
+            this.oos = new ObjectOutputStream(out);
+            this.oos.flush();
+            this.ois = new ObjectInputStream(in);
+        }
+
+        @Override
+        String protocol() {
+            return "legacy";
+        }
+
+        @Override
+        Request readRequest() throws IOException, ClassNotFoundException {
+            try {
+                return (Request) ois.readObject();
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        void writeResponse(Response response) throws IOException {
+            if (compressionAccepted) {
+                response = PayloadCompressor.compressForLegacy(response);
+            }
+            send(response);
+        }
+
+        @Override
+        void writeCached(ResponseCache.Entry entry, long correlationId) throws IOException {
+            send(entry.legacyResponse(correlationId, compressionAccepted));
+        }
+
+        private void send(Response response) throws IOException {
+            oos.writeObject(response);
+            oos.flush();
+            // 같은 객체(예: 상태가 바뀐 Room)를 다시 보낼 때 이전 참조가 재사용되지 않도록 초기화
+            oos.reset();
+        }
+    }
+
+    // =========================================================================
+    //                                바이너리 형식
+    // =========================================================================
+
+    private static final class Binary extends PacketChannel {
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Binary(InputStream in, OutputStream out) {
+            this.in = new DataInputStream(in);
+            this.out = new DataOutputStream(out);
+        }
+
+        @Override
+        String protocol() {
+            return "binary";
+        }
+
+        @Override
+        Request readRequest() throws IOException, ClassNotFoundException {
+            try {
+                return BinaryCodec.readRequest(in, ServerConfig.maxFrameBytes());
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        void writeResponse(Response response) throws IOException {
+            out.write(PayloadCompressor.encodeBinaryFrame(response, compressionAccepted));
+            out.flush();
+        }
+
+        @Override
+        void writeCached(ResponseCache.Entry entry, long correlationId) throws IOException {
+            entry.writeBinary(out, correlationId, compressionAccepted);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package cse.hotel.server;
+
+import cse.hotel.common.packet.BinaryCodec;
+import cse.hotel.common.packet.CompressedPayload;
+import cse.hotel.common.packet.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 큰 응답(전체 예약/고객 목록 등)을 압축하는 도우미
+ * 클라이언트가 압축을 허용한 연결에서, 크기가 --compression-threshold 이상인 응답만 압축합니다.
+ * (바이너리 형식은 인코딩한 본문 크기, 기존 직렬화 연결은 목록 항목 수로 어림한 크기 기준)
+ * 압축해도 크기가 줄지 않으면 원본 그대로 보냅니다.
+ */
+final class PayloadCompressor {
+
+    // 직렬화된 목록 항목 1개의 어림 크기(byte). 항목 수 x 이 값이 임계값보다 작으면 압축하지 않음
+    private static final int ESTIMATED_ITEM_BYTES = 64;
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private static final LongAdder compressedCount = new LongAdder();
+    private static final LongAdder skippedCount = new LongAdder();
+    private static final LongAdder bytesIn = new LongAdder();
+    private static final LongAdder bytesOut = new LongAdder();
+    private static final LongAdder cpuNanos = new LongAdder();
+
+    static {
+        ServerMetrics.register("compression", PayloadCompressor::getStats);
+    }
+
+    private PayloadCompressor() {}
+
+    // =========================================================================
+    //                            기존 Java 직렬화 연결
+    // =========================================================================
+
+    /**
+     * resultData 가 임계값보다 크면 CompressedPayload 로 바꾼 새 Response 를 반환합니다.
+     * (목록/맵이 아닌 결과와 항목 수로 어림한 크기가 임계값보다 작은 결과는 직렬화하지 않고 그대로 반환)
+     * 크기를 재려고 미리 직렬화하면 작은 응답을 두 번 직렬화하게 되므로, 항목 수로 판단한 뒤 한 번만 직렬화해 압축합니다.
+     */
+    static Response compressForLegacy(Response response) throws IOException {
+        Object data = response.getResultData();
+        int threshold = ServerConfig.compressionThreshold();
+        if (threshold <= 0) {
+            return response;
+        }
+        int items;
+        if (data instanceof Collection<?> collection) {
+            items = collection.size();
+        } else if (data instanceof Map<?, ?> map) {
+            items = map.size() * 2;
+        } else {
+            return response;
+        }
+        if ((long) items * ESTIMATED_ITEM_BYTES < threshold) {
+            skippedCount.increment();
+            return response;
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(threshold);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(data);
+        }
+        byte[] raw = bos.toByteArray();
+        byte[] deflated = deflate(raw);
+        if (deflated == null) return response;
+
+        Response compressed = new Response(new CompressedPayload(deflated, raw.length), response.getMessage());
+        compressed.setSuccess(response.isSuccess());
+        compressed.setCorrelationId(response.getCorrelationId());
+        return compressed;
+    }
+
+    // =========================================================================
+    //                                바이너리 형식
+    // =========================================================================
+
+    /**
+     * 응답을 바이너리 프레임으로 인코딩합니다. 압축을 허용한 연결이면 큰 본문은 압축합니다.
+     */
+    static byte[] encodeBinaryFrame(Response response, boolean compressionAccepted) throws IOException {
+        byte[] body = BinaryCodec.encodeResponseBody(response);
+        if (compressionAccepted) {
+            byte[] compressed = compressBinaryBody(body);
+            if (compressed != null) {
+                return BinaryCodec.frame(response.getCorrelationId(), BinaryCodec.FLAG_COMPRESSED, compressed);
+            }
+        }
+        return BinaryCodec.frame(response.getCorrelationId(), 0, body);
+    }
+
+    /**
+     * 인코딩된 응답 본문을 압축한 본문 ([int 원본 크기][Deflate 바이트]) 으로 만듭니다.
+     * @return 임계값보다 작거나 압축해도 줄지 않으면 null (원본을 보내야 함)
+     */
+    static byte[] compressBinaryBody(byte[] body) {
+        int threshold = ServerConfig.compressionThreshold();
+        if (threshold <= 0) return null;
+        if (body.length < threshold) {
+            skippedCount.increment();
+            return null;
+        }
+        byte[] deflated = deflate(body);
+        return deflated == null ? null : BinaryCodec.compressedBody(deflated, body.length);
+    }
+
+    // =========================================================================
+    //                                  공통
+    // =========================================================================
+
+    /**
+     * 압축하고 지표를 기록합니다.
+     * @return 크기가 줄지 않으면 null
+     */
+    private static byte[] deflate(byte[] raw) {
+        long start = cpuTime();
+        byte[] deflated = CompressedPayload.deflate(raw, ServerConfig.compressionLevel());
+        cpuNanos.add(cpuTime() - start);
+
+        if (deflated.length >= raw.length) {
+            skippedCount.increment();
+            return null;
+        }
+        compressedCount.increment();
+        bytesIn.add(raw.length);
+        bytesOut.add(deflated.length);
+        return deflated;
+    }
+
+    private static long cpuTime() {
+        return threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("compression.threshold", ServerConfig.compressionThreshold());
+        stats.put("compression.compressed", compressedCount.sum());
+        stats.put("compression.skipped", skippedCount.sum());
+        stats.put("compression.bytesBefore", bytesIn.sum());
+        stats.put("compression.bytesAfter", bytesOut.sum());
+        stats.put("compression.bytesSaved", bytesIn.sum() - bytesOut.sum());
+        stats.put("compression.cpuMillis", cpuNanos.sum() / 1_000_000);
+        return stats;
+    }
+}
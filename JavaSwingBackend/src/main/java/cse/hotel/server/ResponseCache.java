@@ -0,0 +1,158 @@
+package cse.hotel.server;
+
+import cse.hotel.common.packet.BinaryCodec;
+import cse.hotel.common.packet.Response;
+import cse.hotel.server.repository.CustomerRepository;
+import cse.hotel.server.repository.FoodRepository;
+import cse.hotel.server.repository.RoomRepository;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 자주 반복되는 조회(GET_ROOMS, GET_FOODS, GET_CUSTOMERS) 응답 캐시
+ *
+ * 명령별로 마지막 성공 응답과, 그 응답을 만들기 직전에 읽은 Repository 의 변경 횟수(revision)를 보관합니다.
+ * 변경 횟수가 그대로면 Repository 를 다시 읽지 않고 캐시된 응답을 보내며,
+ * 응답 바이트(바이너리 본문, 압축 본문)는 처음 필요할 때 한 번만 인코딩해 두고
+ * 이후에는 correlationId 가 담긴 프레임 헤더만 새로 만들어 함께 보냅니다.
+ *
+ * 기존 Java 직렬화 연결은 압축을 허용한 경우에만 압축된 바이트를 재사용하고,
+ * 그렇지 않으면 캐시된 객체를 매번 직렬화합니다. (조회 비용만 절약)
+ */
+final class ResponseCache {
+
+    /** 캐시된 응답 1개 (내용은 바뀌지 않으며 여러 연결이 함께 사용) */
+    static final class Entry {
+        private final long revision;
+        private final Response response; // correlationId 0
+
+        // 처음 필요할 때 만드는 인코딩 결과 (여러 스레드가 동시에 만들어도 결과는 같음)
+        private volatile byte[] binaryBody;
+        private volatile Encoded binaryCompressed;
+        private volatile Response legacyCompressed;
+
+        private Entry(long revision, Response response) {
+            this.revision = revision;
+            this.response = response;
+        }
+
+        /** 바이너리 연결용: [헤더][본문] 순으로 보낼 바이트 (본문은 캐시된 배열 그대로) */
+        byte[][] binaryFrame(long correlationId, boolean compressionAccepted) throws IOException {
+            byte[] body = binaryBody();
+            int flags = 0;
+            if (compressionAccepted) {
+                Encoded compressed = binaryCompressed;
+                if (compressed == null) {
+                    binaryCompressed = compressed = new Encoded(PayloadCompressor.compressBinaryBody(body));
+                }
+                if (compressed.bytes != null) {
+                    body = compressed.bytes;
+                    flags = BinaryCodec.FLAG_COMPRESSED;
+                }
+            }
+            bytesServed.add(body.length);
+            return new byte[][] { BinaryCodec.frameHeader(correlationId, flags, body.length), body };
+        }
+
+        void writeBinary(DataOutputStream out, long correlationId, boolean compressionAccepted) throws IOException {
+            for (byte[] part : binaryFrame(correlationId, compressionAccepted)) {
+                out.write(part);
+            }
+        }
+
+        /** 기존 직렬화 연결용 응답 (압축을 허용했으면 미리 압축해 둔 데이터를 공유) */
+        Response legacyResponse(long correlationId, boolean compressionAccepted) throws IOException {
+            if (!compressionAccepted) {
+                return response.withCorrelationId(correlationId);
+            }
+            Response compressed = legacyCompressed;
+            if (compressed == null) {
+                legacyCompressed = compressed = PayloadCompressor.compressForLegacy(response);
+            }
+            return compressed.withCorrelationId(correlationId);
+        }
+
+        private byte[] binaryBody() throws IOException {
+            byte[] body = binaryBody;
+            if (body == null) {
+                binaryBody = body = BinaryCodec.encodeResponseBody(response);
+            }
+            return body;
+        }
+    }
+
+    // 압축하지 않기로 한 결과(null)도 저장하기 위한 상자
+    private record Encoded(byte[] bytes) {}
+
+    // 캐시할 명령 -> 해당 데이터의 변경 횟수
+    private static final Map<String, LongSupplier> revisions = Map.of(
+            "GET_ROOMS", RoomRepository.getInstance()::revision,
+            "GET_FOODS", FoodRepository.getInstance()::revision,
+            "GET_CUSTOMERS", CustomerRepository.getInstance()::revision);
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder bytesServed = new LongAdder();
+
+    static {
+        ServerMetrics.register("responseCache", ResponseCache::getStats);
+    }
+
+    private ResponseCache() {}
+
+    static boolean isCacheable(String command) {
+        return command != null && revisions.containsKey(command);
+    }
+
+    /**
+     * 현재 변경 횟수. 응답을 만들기 전에 읽어 두었다가 put 에 넘겨야 합니다.
+     * (읽은 뒤에 변경이 생기면 저장된 응답은 다음 조회에서 바로 무효가 됨)
+     */
+    static long revision(String command) {
+        return revisions.get(command).getAsLong();
+    }
+
+    /**
+     * 아직 유효한 캐시된 응답
+     * @return 없거나 그 사이 데이터가 바뀌었으면 null
+     */
+    static Entry get(String command, long revision) {
+        Entry entry = entries.get(command);
+        if (entry != null && entry.revision == revision) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 새로 만든 응답을 저장합니다. (성공 응답만)
+     * @return 저장된 항목, 실패 응답이면 null
+     */
+    static Entry put(String command, long revision, Response response) {
+        if (!response.isSuccess()) return null;
+        Entry entry = new Entry(revision, response.withCorrelationId(0));
+        // 더 최신 응답이 이미 저장되어 있으면 덮어쓰지 않음
+        entries.merge(command, entry, (old, created) -> old.revision > created.revision ? old : created);
+        return entry;
+    }
+
+    static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long h = hits.sum();
+        long m = misses.sum();
+        stats.put("responseCache.hits", h);
+        stats.put("responseCache.misses", m);
+        stats.put("responseCache.hitRatio", h + m == 0 ? 0.0 : Math.round(h * 1000.0 / (h + m)) / 10.0);
+        stats.put("responseCache.bytesServed", bytesServed.sum());
+        return stats;
+    }
+}
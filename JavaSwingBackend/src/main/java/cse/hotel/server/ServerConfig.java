@@ -0,0 +1,179 @@
+package cse.hotel.server;
+
+/**
+ * 서버 실행 옵션 모음
+ * 실행 인자 "--이름=값" 은 시스템 프로퍼티 "hotel.이름" 으로 등록되며,
+ * 각 옵션은 -Dhotel.이름=값 으로도 지정할 수 있습니다.
+ * (Repository 등 static 초기화 시점에도 읽을 수 있도록 시스템 프로퍼티를 사용)
+ */
+public final class ServerConfig {
+
+    private static final String PREFIX = "hotel.";
+
+    private ServerConfig() {}
+
+    /**
+     * main(String[] args)의 "--이름=값" 형식 인자를 시스템 프로퍼티로 등록합니다.
+     * 값이 없는 "--이름" 은 "true" 로 취급합니다.
+     */
+    public static void applyArgs(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                System.err.println("⚠️ 알 수 없는 실행 인자 무시: " + arg);
+                continue;
+            }
+            String option = arg.substring(2);
+            int eq = option.indexOf('=');
+            String name = (eq < 0) ? option : option.substring(0, eq);
+            String value = (eq < 0) ? "true" : option.substring(eq + 1);
+            System.setProperty(PREFIX + name, value);
+        }
+    }
+
+    public static String getString(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ 잘못된 숫자 옵션 " + name + "=" + value + " (기본값 " + defaultValue + " 사용)");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 정해진 값 중 하나인 옵션 (대소문자 구분 없음, 소문자로 반환)
+     * 목록에 없는 값이면 경고를 출력하고 기본값을 사용합니다.
+     */
+    public static String getChoice(String name, String defaultValue, String... allowed) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) return defaultValue;
+        String normalized = value.trim().toLowerCase();
+        for (String choice : allowed) {
+            if (choice.equals(normalized)) return normalized;
+        }
+        System.err.println("⚠️ 잘못된 옵션 " + name + "=" + value + " (" + String.join(" / ", allowed) + " 중 하나, 기본값 " + defaultValue + " 사용)");
+        return defaultValue;
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return (value == null) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    // --- 서버 옵션 ---
+
+    /** 서버 포트 (--port) */
+    public static int port() {
+        return getInt("port", 9999);
+    }
+
+    /** 서버 입출력 방식: blocking(연결당 스레드, 기본값) 또는 nio(Selector + 워커 풀) (--mode) */
+    public static String serverMode() {
+        return getString("mode", "blocking");
+    }
+
+    /** 연결 실행 방식: virtual(연결당 가상 스레드) 또는 platform(연결당 OS 스레드) (--executor) */
+    public static String executorMode() {
+        return getString("executor", "virtual");
+    }
+
+    /** 동시에 처리할 수 있는 최대 요청 수 (--max-inflight) */
+    public static int maxInFlight() {
+        return getInt("max-inflight", 64);
+    }
+
+    /** 처리 대기열 최대 길이. 초과 시 새 연결은 거부 응답을 받습니다. (--accept-queue) */
+    public static int acceptQueueCapacity() {
+        return getInt("accept-queue", 256);
+    }
+
+    /** 처리 슬롯을 기다리는 최대 시간(ms). 초과 시 해당 요청은 거부 응답을 받습니다. (--admission-timeout-ms) */
+    public static int admissionTimeoutMillis() {
+        return getInt("admission-timeout-ms", 5000);
+    }
+
+    /** Keep-Alive 연결에서 다음 요청을 기다리는 최대 시간(ms). 초과 시 연결을 닫습니다. (--idle-timeout-ms) */
+    public static int idleTimeoutMillis() {
+        return getInt("idle-timeout-ms", 30000);
+    }
+
+    /** NIO 모드에서 요청을 처리하는 워커 스레드 수 (--nio-workers) */
+    public static int nioWorkers() {
+        return getInt("nio-workers", Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /** NIO 모드에서 허용하는 프레임 최대 크기(byte). 초과하면 연결을 닫습니다. (--max-frame-bytes) */
+    public static int maxFrameBytes() {
+        return getInt("max-frame-bytes", 16 * 1024 * 1024);
+    }
+
+    /** BATCH 명령 1건에 담을 수 있는 최대 요청 수 (--max-batch-size) */
+    public static int maxBatchSize() {
+        return getInt("max-batch-size", 64);
+    }
+
+    /** 압축을 시도하는 최소 응답 크기(byte). 0 이면 압축하지 않습니다. (--compression-threshold) */
+    public static int compressionThreshold() {
+        return getInt("compression-threshold", 16 * 1024);
+    }
+
+    /** Deflate 압축 레벨 1(빠름) ~ 9(작음) (--compression-level) */
+    public static int compressionLevel() {
+        return getInt("compression-level", 1);
+    }
+
+    /** 변경 로그가 이 건수를 넘으면 스냅샷을 새로 저장 (--log-compact-threshold) */
+    public static int logCompactThreshold() {
+        return getInt("log-compact-threshold", 1000);
+    }
+
+    /** 디스크 반영 정책: none / batch / always (--durability) */
+    public static String durability() {
+        return getChoice("durability", "batch", "none", "batch", "always");
+    }
+
+    /** 변경 로그를 모아서 디스크에 쓰는 주기 (--flush-interval-ms) */
+    public static int flushIntervalMillis() {
+        return getInt("flush-interval-ms", 50);
+    }
+
+    /** 쌓인 변경이 이 건수에 도달하면 주기를 기다리지 않고 바로 기록 (--flush-dirty-threshold) */
+    public static int flushDirtyThreshold() {
+        return getInt("flush-dirty-threshold", 256);
+    }
+
+    /** 보고서 집계에 쓰는 전용 Fork/Join 풀의 스레드 수 (--report-parallelism) */
+    public static int reportParallelism() {
+        return getInt("report-parallelism", Runtime.getRuntime().availableProcessors());
+    }
+
+    /** 비동기 보고서 작업(GENERATE_REPORT_ASYNC)을 실행하는 스레드 수 (--report-workers) */
+    public static int reportWorkers() {
+        return getInt("report-workers", 2);
+    }
+
+    /** 실행을 기다릴 수 있는 보고서 작업 수, 넘으면 접수 거부 (--report-queue-capacity) */
+    public static int reportQueueCapacity() {
+        return getInt("report-queue-capacity", 16);
+    }
+
+    /** 끝난 보고서 작업의 결과를 보관하는 개수 (오래 조회되지 않은 것부터 삭제, --report-result-cache) */
+    public static int reportResultCache() {
+        return getInt("report-result-cache", 32);
+    }
+
+    /** EXPORT 응답 조각 1개에 담는 최대 줄 수 (--export-chunk-rows) */
+    public static int exportChunkRows() {
+        return getInt("export-chunk-rows", 500);
+    }
+
+    /** NIO 모드에서 EXPORT 조각을 받아 가지 않는 클라이언트를 기다리는 최대 시간(ms), 넘으면 연결을 닫음 (--export-stall-timeout-ms) */
+    public static int exportStallTimeoutMillis() {
+        return getInt("export-stall-timeout-ms", 30000);
+    }
+}
@@ -0,0 +1,39 @@
+package cse.hotel.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 서버 구성요소별 지표 모음 (SERVER_STATS 명령으로 조회)
+ * 각 구성요소는 생성 시 자신의 지표 공급자를 이름과 함께 등록합니다.
+ */
+public final class ServerMetrics {
+
+    private static final Map<String, Supplier<Map<String, Object>>> sources = new ConcurrentHashMap<>();
+
+    private ServerMetrics() {}
+
+    /**
+     * 지표 공급자를 등록합니다. 같은 이름으로 다시 등록하면 교체됩니다.
+     */
+    public static void register(String name, Supplier<Map<String, Object>> source) {
+        sources.put(name, source);
+    }
+
+    /**
+     * 등록된 모든 지표를 이름순으로 모아 반환합니다.
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        sources.keySet().stream().sorted().forEach(name -> {
+            try {
+                result.putAll(sources.get(name).get());
+            } catch (RuntimeException e) {
+                result.put(name + ".error", e.getMessage());
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package cse.hotel.server.repository;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 뒤에 추가만 되는 목록 (주문 내역처럼 쌓이기만 하는 데이터용)
+ *
+ * 여러 스냅샷이 같은 배열을 함께 보고, 추가는 항상 스냅샷들의 길이 뒤쪽 칸에만 쓰므로
+ * snapshot() 은 복사 없이 그 시점까지의 불변 목록을 돌려줍니다.
+ * 배열이 가득 차면 두 배 크기로 새로 만들고, 이전 스냅샷은 예전 배열을 계속 봅니다.
+ *
+ * lastSnapshot() 외에는 동기화하지 않으므로 소유한 Repository 의 잠금 안에서만 사용합니다.
+ */
+final class AppendOnlyList<E> {
+
+    private Object[] items;
+    private int size;
+    // 마지막으로 만든 스냅샷 (변경 시 null)
+    private volatile View<E> snapshot;
+    // 지금 배열을 보는 스냅샷을 만든 적이 있는지 (있으면 기존 칸을 고치기 전에 배열을 복사)
+    private boolean shared;
+
+    AppendOnlyList(List<? extends E> initial) {
+        items = Arrays.copyOf(initial.toArray(), Math.max(16, initial.size()));
+        size = initial.size();
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        return (E) items[index];
+    }
+
+    void add(E item) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            shared = false;
+        }
+        items[size++] = item;
+        snapshot = null;
+    }
+
+    /** 이미 있는 위치의 항목을 교체합니다. (변경 로그 재적용용, 스냅샷이 보는 배열이면 먼저 복사) */
+    void set(int index, E item) {
+        if (shared) {
+            items = items.clone();
+            shared = false;
+        }
+        items[index] = item;
+        snapshot = null;
+    }
+
+    /** 지금까지의 항목 (수정할 수 없는 목록, 배열을 복사하지 않음) */
+    List<E> snapshot() {
+        View<E> current = snapshot;
+        if (current == null) {
+            snapshot = current = new View<>(items, size);
+            shared = true;
+        }
+        return current;
+    }
+
+    /** 마지막으로 만든 스냅샷 (잠금 없이 호출 가능, 그 뒤 추가가 있었으면 null) */
+    List<E> lastSnapshot() {
+        return snapshot;
+    }
+
+    // 배열의 앞 size 칸만 보는 읽기 전용 목록
+    private static final class View<E> extends AbstractList<E> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Object[] items; // 직렬화될 때는 writeReplace 의 ArrayList 로 바뀌므로 쓰이지 않음
+        private final int size;
+
+        View(Object[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (E) items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        // 응답으로 직렬화될 때는 클라이언트가 아는 ArrayList 로 보냄
+        private Object writeReplace() {
+            return new ArrayList<>(this);
+        }
+    }
+}
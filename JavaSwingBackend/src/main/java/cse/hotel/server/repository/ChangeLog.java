@@ -0,0 +1,428 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.server.ServerConfig;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Repository 변경 로그 (Append-only Write-Ahead Log)
+ *
+ * 기존에는 변경이 있을 때마다 전체 목록을 .ser 파일에 다시 썼지만,
+ * 이제 추가/수정/삭제 1건당 로그 레코드 1개만 덧붙입니다.
+ * - 기준 파일(.ser): 마지막 스냅샷 (기존과 같은 형식이므로 예전 데이터 파일을 그대로 읽을 수 있음)
+ * - 로그 파일(.log): 스냅샷 이후의 변경 내역
+ * 서버 시작 시 기준 파일을 읽은 뒤 로그를 순서대로 다시 적용(replay)하고,
+ * 로그가 --log-compact-threshold 건을 넘으면 현재 상태를 새 스냅샷으로 저장하고 로그를 비웁니다(compaction).
+ *
+ * 레코드는 먼저 메모리 버퍼에 쌓이고, 실제 파일 기록/fsync 와 스냅샷 저장은
+ * PersistenceScheduler 의 백그라운드 스레드가 모아서 수행합니다.
+ *
+ * 레코드 형식: [int 길이][int CRC32][long LSN][byte 종류][직렬화된 key, value]
+ * 마지막 레코드가 중간에 잘렸거나 CRC 가 맞지 않으면 그 지점부터 잘라냅니다.
+ *
+ * 여러 Repository 를 함께 바꾸는 UnitOfWork 의 변경은 이 로그가 아니라 트랜잭션 저널에 기록됩니다.
+ * 시작 시 저널에 있는 이 로그의 레코드를 LSN 순으로 합쳐서 적용하고,
+ * 스냅샷 직후 로그 맨 앞에 남기는 체크포인트 레코드보다 오래된 저널 레코드는 건너뜁니다.
+ *
+ * 호출하는 Repository 는 메모리 변경과 put/delete/compact 를 같은 잠금 안에서 수행해야
+ * 스냅샷과 로그가 서로 어긋나지 않습니다.
+ */
+public final class ChangeLog<K extends Serializable, V extends Serializable> {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_CHECKPOINT = 3;
+
+    // 모든 변경 로그가 공유하는 일련번호 (Log Sequence Number)
+    private static final AtomicLong lastLsn = new AtomicLong();
+
+    private final String name;
+    private final String id;
+    private final boolean journaled;
+    private final File baseFile;
+    private final File logFile;
+    private final int compactThreshold;
+    private final Runnable compactor;
+    private final PersistenceScheduler scheduler = PersistenceScheduler.getInstance();
+
+    // 파일 기록(채널 위치 변경)은 이 잠금 안에서만 수행. 잠금 순서: flushLock -> this
+    private final Object flushLock = new Object();
+    private FileChannel channel;
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private int recordsSinceSnapshot;
+    private boolean compactionRequested;
+    // 스냅샷 저장에 성공한 횟수 (runCompactor 가 compactor 실행 결과를 확인하는 데 사용)
+    private volatile long snapshots;
+
+    /**
+     * @param name      로그 이름 (로그 출력용)
+     * @param baseFile  스냅샷 파일 (예: data/room_data.ser). 로그 파일은 같은 이름의 .log 파일입니다.
+     * @param compactor 로그가 길어졌을 때 호출할 스냅샷 저장 메서드 (Repository 의 잠금을 잡고 compact 를 호출해야 함)
+     */
+    public ChangeLog(String name, File baseFile, Runnable compactor) {
+        this(name, baseFile, compactor, true);
+    }
+
+    /**
+     * @param journaled 시작 시 트랜잭션 저널의 레코드를 합쳐서 적용할지 여부 (저널 자신은 false)
+     */
+    ChangeLog(String name, File baseFile, Runnable compactor, boolean journaled) {
+        this.name = name;
+        this.journaled = journaled;
+        this.baseFile = baseFile;
+        String path = baseFile.getPath();
+        this.logFile = new File(path.endsWith(".ser") ? path.substring(0, path.length() - 4) + ".log" : path + ".log");
+        this.id = logFile.getName();
+        this.compactThreshold = ServerConfig.logCompactThreshold();
+        this.compactor = compactor;
+        scheduler.register(this);
+    }
+
+    /** 지금까지 발급된 마지막 LSN */
+    static long currentLsn() {
+        return lastLsn.get();
+    }
+
+    /** 변경 로그 밖의 기록(객실 상태 기록 등)이 같은 순서로 디스크 반영을 기다릴 수 있도록 새 LSN 을 발급합니다. */
+    static long nextLsn() {
+        return lastLsn.incrementAndGet();
+    }
+
+    /** 트랜잭션 저널에서 이 로그를 가리키는 이름 (로그 파일 이름) */
+    String id() {
+        return id;
+    }
+
+    /**
+     * 스냅샷 저장 (Repository 의 잠금을 잡고 compact 호출)
+     * @return 스냅샷을 저장했으면 true, 실패했으면 false
+     */
+    boolean runCompactor() {
+        long before = snapshots;
+        compactor.run();
+        return snapshots != before;
+    }
+
+    /** 스냅샷을 저장하지 못했을 때, 다음 기록에서 다시 요청할 수 있도록 요청 표시를 지웁니다. */
+    synchronized void compactionSkipped() {
+        compactionRequested = false;
+    }
+
+    // =========================================================================
+    //                               시작 시 복구
+    // =========================================================================
+
+    /**
+     * 로그 파일의 레코드를 기록된 순서대로 적용합니다. (기준 파일을 읽은 직후 호출)
+     * 트랜잭션 저널에 있는 이 로그의 레코드는 LSN 순서에 맞춰 사이사이에 적용합니다.
+     * 손상된 꼬리 레코드는 잘라냅니다.
+     * @return 적용한 레코드 수
+     */
+    public synchronized int replay(BiConsumer<K, V> onPut, Consumer<K> onDelete) {
+        List<byte[]> journal = journaled ? TransactionJournal.getInstance().recordsFor(this) : List.of();
+        int nextTx = 0;
+        int applied = 0;
+        int appliedTx = 0;
+        long validLength = 0;
+
+        if (logFile.exists() && logFile.length() > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break; // 정상 종료
+                    }
+                    int crc = in.readInt();
+                    if (length <= 0 || length > logFile.length()) {
+                        throw new IOException("잘못된 레코드 길이: " + length);
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    if (crc != checksum(payload)) {
+                        throw new IOException("CRC 불일치");
+                    }
+
+                    long lsn = lsnOf(payload);
+                    if (payload[Long.BYTES] == OP_CHECKPOINT) {
+                        // 스냅샷에 이미 포함된 저널 레코드는 건너뜀
+                        while (nextTx < journal.size() && lsnOf(journal.get(nextTx)) < lsn) nextTx++;
+                    } else {
+                        while (nextTx < journal.size() && lsnOf(journal.get(nextTx)) < lsn) {
+                            if (applyJournal(journal.get(nextTx++), onPut, onDelete)) appliedTx++;
+                        }
+                        apply(payload, onPut, onDelete);
+                        applied++;
+                    }
+                    lastLsn.accumulateAndGet(lsn, Math::max);
+                    validLength += Integer.BYTES * 2 + length;
+                }
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                System.err.println("⚠️ " + name + " 변경 로그 손상 (" + e + "), " + validLength + " byte 이후를 잘라냅니다.");
+            }
+        }
+
+        // 로그의 마지막 레코드보다 나중에 커밋된 트랜잭션
+        for (; nextTx < journal.size(); nextTx++) {
+            if (applyJournal(journal.get(nextTx), onPut, onDelete)) appliedTx++;
+        }
+
+        try {
+            channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            throw new IllegalStateException(name + " 변경 로그를 열 수 없습니다: " + logFile, e);
+        }
+
+        recordsSinceSnapshot = applied;
+        if (applied > 0) {
+            System.out.println("✅ " + name + " 변경 로그 " + applied + "건 적용");
+        }
+        if (appliedTx > 0) {
+            System.out.println("✅ " + name + " 트랜잭션 저널 " + appliedTx + "건 적용");
+        }
+        return applied + appliedTx;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(byte[] payload, BiConsumer<K, V> onPut, Consumer<K> onDelete) throws IOException, ClassNotFoundException {
+        DataInputStream rec = new DataInputStream(new ByteArrayInputStream(payload));
+        rec.readLong();
+        byte op = rec.readByte();
+        try (ObjectInputStream ois = new ObjectInputStream(rec)) {
+            K key = (K) ois.readObject();
+            if (op == OP_PUT) {
+                onPut.accept(key, (V) ois.readObject());
+            } else if (op == OP_DELETE) {
+                onDelete.accept(key);
+            }
+        }
+    }
+
+    // 저널 레코드 1건 적용 (읽지 못해도 이 로그 파일은 자르지 않음)
+    private boolean applyJournal(byte[] payload, BiConsumer<K, V> onPut, Consumer<K> onDelete) {
+        try {
+            apply(payload, onPut, onDelete);
+            return true;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("⚠️ " + name + " 트랜잭션 레코드를 적용하지 못했습니다: " + e);
+            return false;
+        }
+    }
+
+    static long lsnOf(byte[] payload) {
+        return ByteBuffer.wrap(payload).getLong();
+    }
+
+    // =========================================================================
+    //                                 변경 기록
+    // =========================================================================
+
+    /** key 의 현재 값을 기록합니다. (추가/수정) */
+    public synchronized void put(K key, V value) {
+        append(OP_PUT, key, value);
+    }
+
+    /** key 삭제를 기록합니다. */
+    public synchronized void delete(K key) {
+        append(OP_DELETE, key, null);
+    }
+
+    /**
+     * 트랜잭션 저널에 넣을 레코드를 만듭니다. (이 로그에는 쓰지 않음)
+     * 메모리 변경과 같은 잠금 안에서 호출해야 LSN 순서가 실제 변경 순서와 같아집니다.
+     */
+    byte[] encodePut(K key, V value) throws IOException {
+        return encode(lastLsn.incrementAndGet(), OP_PUT, key, value);
+    }
+
+    byte[] encodeDelete(K key) throws IOException {
+        return encode(lastLsn.incrementAndGet(), OP_DELETE, key, null);
+    }
+
+    private void append(byte op, K key, V value) {
+        ensureOpen();
+        try {
+            long lsn = lastLsn.incrementAndGet();
+            pending.add(frame(encode(lsn, op, key, value)));
+            recordsSinceSnapshot++;
+            scheduler.onAppend(lsn);
+        } catch (IOException e) {
+            System.err.println("❌ " + name + " 변경 로그 기록 실패: " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (recordsSinceSnapshot >= compactThreshold && !compactionRequested) {
+            compactionRequested = true;
+            scheduler.requestCompaction(compactor);
+        }
+    }
+
+    private static byte[] encode(long lsn, byte op, Object key, Object value) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeLong(lsn);
+        out.writeByte(op);
+        if (op == OP_CHECKPOINT) {
+            out.flush();
+            return bos.toByteArray();
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(key);
+            if (op == OP_PUT) {
+                oos.writeObject(value);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer buf = ByteBuffer.allocate(Integer.BYTES * 2 + payload.length);
+        buf.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        return buf;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // =========================================================================
+    //                              스냅샷 (Compaction)
+    // =========================================================================
+
+    /**
+     * 현재 상태(snapshot)를 기준 파일에 저장하고 로그를 비웁니다.
+     * 기준 파일은 임시 파일에 먼저 쓴 뒤 교체하므로, 도중에 서버가 꺼져도 이전 스냅샷 + 로그로 복구됩니다.
+     * 아직 파일에 쓰지 않은 버퍼의 변경도 스냅샷에 포함되므로 함께 버립니다.
+     * 비운 로그 맨 앞에는 체크포인트 레코드를 남겨, 그보다 오래된 저널 레코드가 다시 적용되지 않게 합니다.
+     * 스냅샷을 쓰기 전에 트랜잭션 저널의 버퍼를 먼저 디스크에 반영하며, 실패하면 스냅샷을 저장하지 않습니다.
+     * @return 스냅샷을 저장하고 로그를 비웠으면 true, 실패해서 이전 스냅샷 + 로그를 그대로 두었으면 false
+     */
+    public boolean compact(Serializable snapshot) {
+        synchronized (flushLock) {
+            synchronized (this) {
+                ensureOpen();
+                try {
+                    if (journaled) {
+                        // 스냅샷에 들어갈 트랜잭션의 변경은 저널에 먼저 반영 (저널 기록 전에 서버가 꺼지면 트랜잭션의 일부만 남음)
+                        TransactionJournal.getInstance().flush();
+                    }
+                    writeSnapshot(baseFile, snapshot);
+                    pending.clear();
+                    channel.truncate(0);
+                    channel.position(0);
+                    ByteBuffer checkpoint = frame(encode(lastLsn.incrementAndGet(), OP_CHECKPOINT, null, null));
+                    while (checkpoint.hasRemaining()) {
+                        channel.write(checkpoint);
+                    }
+                    channel.force(true);
+                    System.out.println("💾 " + name + " 스냅샷 저장 완료 (로그 " + recordsSinceSnapshot + "건 정리)");
+                    recordsSinceSnapshot = 0;
+                    snapshots++;
+                    return true;
+                } catch (IOException e) {
+                    System.err.println("❌ " + name + " 스냅샷 저장 실패: " + e.getMessage());
+                    e.printStackTrace();
+                    return false;
+                } finally {
+                    compactionRequested = false;
+                }
+            }
+        }
+    }
+
+    // =========================================================================
+    //                     파일 기록 (PersistenceScheduler 에서 호출)
+    // =========================================================================
+
+    /**
+     * 버퍼에 쌓인 레코드를 한 번에 파일 끝에 씁니다. (fsync 는 하지 않음)
+     * 실패하면 쓰던 위치로 되돌리고 레코드를 버퍼에 다시 넣습니다.
+     * @return 기록한 레코드 수
+     */
+    int writePending() throws IOException {
+        synchronized (flushLock) {
+            List<ByteBuffer> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return 0;
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+            long start = channel.position();
+            try {
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                return buffers.length;
+            } catch (IOException e) {
+                try {
+                    channel.truncate(start);
+                    channel.position(start);
+                } catch (IOException ignored) {
+                    /* 무시 */ }
+                synchronized (this) {
+                    for (ByteBuffer buf : batch) buf.rewind();
+                    batch.addAll(pending);
+                    pending = batch;
+                }
+                throw new IOException(name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** 기록한 내용을 디스크에 강제 반영합니다. */
+    void sync() throws IOException {
+        synchronized (flushLock) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * 객체를 파일에 원자적으로 저장합니다. (임시 파일 기록 → fsync → 이름 교체)
+     */
+    static void writeSnapshot(File target, Serializable snapshot) throws IOException {
+        File tmp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos))) {
+            oos.writeObject(snapshot);
+            oos.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void ensureOpen() {
+        if (channel == null) {
+            // replay 없이 사용된 경우 (기준 파일만 있는 새 로그)
+            replay((k, v) -> {}, k -> {});
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package cse.hotel.server.repository;
 
 import java.io.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import cse.hotel.common.model.ClientReservation;
+import cse.hotel.common.model.Room;
 
+/**
+ * 예약 저장소 (data/client_reservation.ser + 변경 로그)
+ * ClientReservationService, ReservationService, ReportService 가 모두 이 메모리 목록을 함께 사용합니다.
+ */
 public class ClientReservationRepository {
     private static final String FILE_PATH = "data/client_reservation.ser";
     
     private static final ClientReservationRepository instance = new ClientReservationRepository();
-    private List<ClientReservation> reservationList;
+    // 예약 ID -> 예약 (등록 순서 유지)
+    private final Map<String, ClientReservation> reservationsById = new LinkedHashMap<>();
+    // 고객 ID -> (예약 ID -> 예약) 보조 색인 (내 예약 조회, 체크인 검증용)
+    private final Map<String, Map<String, ClientReservation>> reservationsByCustomer = new HashMap<>();
+    // 객실별 예약 기간 색인 (빈 객실 검색, 기간 중복 검사용)
+    private final RoomCalendar calendar = new RoomCalendar();
+    // 일별 매출 집계 (보고서용, 예약이 바뀔 때마다 함께 갱신)
+    private final RevenueLedger ledger = RevenueLedger.getInstance();
+    // 전체 목록 조회용 불변 스냅샷 (변경 시 null 로 비우고, 다음 조회에서 한 번만 다시 만듦)
+    private volatile List<ClientReservation> snapshot;
+
+    // 변경 내역 로그 (data/client_reservation.log)
+    private final ChangeLog<String, ClientReservation> changeLog = new ChangeLog<>("예약", new File(FILE_PATH), this::save);
 
     // 생성자
     private ClientReservationRepository() {
@@ -19,7 +40,11 @@ public class ClientReservationRepository {
             file.getParentFile().mkdirs();
         }
         
-        this.reservationList = load();
+        for (ClientReservation r : load()) {
+            putIndexed(r);
+        }
+        // 마지막 스냅샷 이후의 변경 내역 적용
+        changeLog.replay(this::replacePut, this::removeById);
     }
 
     public static ClientReservationRepository getInstance() {
@@ -28,39 +53,174 @@ public class ClientReservationRepository {
 
     // --- CRUD 메서드 ---
 
-    public void add(ClientReservation reservation) {
+    public synchronized void add(ClientReservation reservation) {
         // ID가 같은 기존 예약이 있다면 교체(수정), 없으면 추가
-        ClientReservation existing = findById(reservation.getReservationId());
+        putIndexed(reservation);
+        // 변경 즉시 로그에 기록
+        changeLog.put(reservation.getReservationId(), reservation);
+    }
+
+    /**
+     * 예약을 취소 상태로 바꿉니다. (확인과 변경을 한 번에, uow 가 null 이면 바로 기록)
+     * 스냅샷 목록이나 캐시된 응답이 같은 객체를 보고 있을 수 있으므로, 기존 객체를 고치지 않고
+     * 상태만 바꾼 새 객체로 교체합니다.
+     * @return 취소된 예약, 없으면 null
+     * @throws IllegalStateException 이미 취소된 예약인 경우
+     */
+    public synchronized ClientReservation cancel(String reservationId, UnitOfWork uow) {
+        ClientReservation existing = reservationsById.get(reservationId);
+        if (existing == null) return null;
+        if (RoomCalendar.isCancelled(existing)) {
+            throw new IllegalStateException("이미 취소된 예약입니다.");
+        }
+        ClientReservation cancelled = new ClientReservation(existing.getReservationId(), existing.getCustomerId(),
+                existing.getRoomNumber(), existing.getCheckInDate(), existing.getCheckOutDate(),
+                existing.getTotalPrice(), "CANCELLED");
+        putIndexed(cancelled);
+        if (uow == null) {
+            changeLog.put(reservationId, cancelled);
+        } else {
+            uow.put(changeLog, reservationId, cancelled);
+            uow.onRollback(() -> {
+                synchronized (this) {
+                    putIndexed(existing);
+                }
+            });
+        }
+        return cancelled;
+    }
+
+    /**
+     * 같은 객실에 기간이 겹치는 예약이 없을 때만 예약을 추가합니다. (검사와 추가를 한 번에)
+     * @throws IllegalArgumentException 체크인/체크아웃 날짜 형식이 잘못된 경우
+     * @throws IllegalStateException    기간이 겹치는 예약이 이미 있는 경우
+     */
+    public void addIfAvailable(ClientReservation reservation) {
+        addIfAvailable(reservation, null);
+    }
+
+    /** 다른 Repository 의 변경과 함께 기록할 예약 추가 (uow 가 null 이면 바로 기록) */
+    public synchronized void addIfAvailable(ClientReservation reservation, UnitOfWork uow) {
+        LocalDate from = requireDate(reservation.getCheckInDate());
+        LocalDate to = RoomCalendar.endOf(from, requireDate(reservation.getCheckOutDate()));
+        String conflict = calendar.findConflict(reservation.getRoomNumber(), from, to);
+        if (conflict != null) {
+            throw new IllegalStateException(reservation.getRoomNumber() + "호는 해당 기간에 이미 예약되어 있습니다. (" + conflict + ")");
+        }
+        if (uow == null) {
+            add(reservation);
+            return;
+        }
+        String reservationId = reservation.getReservationId();
+        ClientReservation previous = reservationsById.get(reservationId);
+        putIndexed(reservation);
+        uow.put(changeLog, reservationId, reservation);
+        uow.onRollback(() -> {
+            synchronized (this) {
+                if (previous != null) putIndexed(previous); else removeById(reservationId);
+            }
+        });
+    }
+
+    /**
+     * 후보 객실 중 [checkIn, checkOut) 기간에 예약이 없는 객실만 반환합니다.
+     * @throws IllegalArgumentException 날짜 형식이 잘못된 경우
+     */
+    public synchronized List<Room> filterAvailable(List<Room> candidates, String checkIn, String checkOut) {
+        LocalDate from = requireDate(checkIn);
+        LocalDate to = RoomCalendar.endOf(from, requireDate(checkOut));
+        List<Room> available = new ArrayList<>();
+        for (Room room : candidates) {
+            if (calendar.findConflict(room.getRoomNumber(), from, to) == null) {
+                available.add(room);
+            }
+        }
+        return available;
+    }
+
+    private static LocalDate requireDate(String date) {
+        LocalDate parsed = RoomCalendar.parseDate(date);
+        if (parsed == null) {
+            throw new IllegalArgumentException("날짜 형식이 올바르지 않습니다 (yyyy-MM-dd): " + date);
+        }
+        return parsed;
+    }
+
+    public synchronized ClientReservation remove(String reservationId) {
+        ClientReservation existing = removeById(reservationId);
         if (existing != null) {
-            reservationList.remove(existing);
+            changeLog.delete(reservationId);
         }
-        
-        reservationList.add(reservation);
-        save(); // 변경 즉시 파일 저장
+        return existing;
     }
 
+    /** 전체 예약 목록 (수정할 수 없는 스냅샷, 변경이 없으면 복사나 잠금 없이 같은 목록) */
     public List<ClientReservation> findAll() {
-        return new ArrayList<>(reservationList);
+        List<ClientReservation> current = snapshot;
+        return current != null ? current : rebuildSnapshot();
     }
 
-    public ClientReservation findById(String reservationId) {
-        for (ClientReservation r : reservationList) {
-            if (r.getReservationId() != null && r.getReservationId().equals(reservationId)) {
-                return r;
-            }
+    private synchronized List<ClientReservation> rebuildSnapshot() {
+        if (snapshot == null) {
+            snapshot = List.copyOf(reservationsById.values());
         }
-        return null;
+        return snapshot;
+    }
+
+    public synchronized ClientReservation findById(String reservationId) {
+        return reservationsById.get(reservationId);
+    }
+
+    /** 고객 ID로 예약 목록 조회 (색인 사용) */
+    public synchronized List<ClientReservation> findByCustomerId(String customerId) {
+        Map<String, ClientReservation> bucket = reservationsByCustomer.get(customerId);
+        return bucket == null ? List.of() : List.copyOf(bucket.values());
     }
 
     // --- 파일 저장/로드 (I/O) ---
 
-    private void save() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH))) {
-            oos.writeObject(reservationList);
-            System.out.println("💾 예약 데이터 저장 완료 (" + FILE_PATH + ")");
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("❌ 예약 저장 실패");
+    // 전체 스냅샷 저장 후 변경 로그 비우기
+    private synchronized void save() {
+        // 파일 형식은 기존과 같은 List<ClientReservation>
+        changeLog.compact(new ArrayList<>(reservationsById.values()));
+    }
+
+    // 로그 재적용용: 같은 ID 가 있으면 교체, 없으면 추가
+    private void replacePut(String reservationId, ClientReservation reservation) {
+        putIndexed(reservation);
+    }
+
+    // --- 색인 관리 ---
+
+    // 예약을 저장하고 고객 색인을 갱신 (같은 ID 가 있으면 교체, 목록 순서는 유지)
+    private void putIndexed(ClientReservation reservation) {
+        ClientReservation previous = reservationsById.put(reservation.getReservationId(), reservation);
+        snapshot = null;
+        if (previous != null && !previous.getCustomerId().equals(reservation.getCustomerId())) {
+            unindexCustomer(previous);
+        }
+        reservationsByCustomer.computeIfAbsent(reservation.getCustomerId(), k -> new LinkedHashMap<>())
+                .put(reservation.getReservationId(), reservation);
+        calendar.put(reservation);
+        ledger.putReservation(reservation);
+    }
+
+    private ClientReservation removeById(String reservationId) {
+        ClientReservation removed = reservationsById.remove(reservationId);
+        if (removed != null) {
+            snapshot = null;
+            unindexCustomer(removed);
+            calendar.remove(reservationId);
+            ledger.removeReservation(reservationId);
+        }
+        return removed;
+    }
+
+    private void unindexCustomer(ClientReservation reservation) {
+        Map<String, ClientReservation> bucket = reservationsByCustomer.get(reservation.getCustomerId());
+        if (bucket != null) {
+            bucket.remove(reservation.getReservationId());
+            if (bucket.isEmpty()) reservationsByCustomer.remove(reservation.getCustomerId());
         }
     }
 
@@ -2,8 +2,15 @@ package cse.hotel.server.repository;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID; // 고객 ID 자동 생성을 위해 추가
+import cse.hotel.common.exception.DuplicateIdException;
+import cse.hotel.common.exception.VersionConflictException;
 import cse.hotel.common.model.Customer;
 
 public class CustomerRepository {
@@ -15,8 +22,19 @@ public class CustomerRepository {
     // 싱글톤 인스턴스
     private static final CustomerRepository instance = new CustomerRepository();
 
-    // 메모리상의 고객 목록 (DB 역할)
-    private final List<Customer> customerDatabase;
+    // 메모리상의 고객 목록 (DB 역할) - 고객 ID -> 고객, 등록 순서 유지
+    private final Map<String, Customer> customerDatabase = new LinkedHashMap<>();
+
+    // 전화번호 색인 - 숫자만 남긴 전화번호 -> 고객 ID 목록 (중복 등록된 번호가 있을 수 있으므로 Set)
+    private final Map<String, Set<String>> phoneIndex = new HashMap<>();
+
+    // 전체 목록 조회용 불변 스냅샷 (변경 시 null 로 비우고, 다음 조회에서 한 번만 다시 만듦)
+    private volatile List<Customer> snapshot;
+    // 변경될 때마다 1씩 증가 (응답 캐시 무효화용)
+    private volatile long revision;
+
+    // 변경 내역 로그 (data/customer_data.log)
+    private final ChangeLog<String, Customer> changeLog = new ChangeLog<>("고객", DATA_FILE, this::saveData);
 
     // --- Static 초기화 블록 (파일 및 폴더 생성 강제) ---
     static {
@@ -31,7 +49,11 @@ public class CustomerRepository {
 
     // 3. private 생성자: 데이터 로드 및 초기 데이터 설정
     private CustomerRepository() {
-        this.customerDatabase = loadData();
+        for (Customer c : loadData()) {
+            putIndexed(c);
+        }
+        // 마지막 스냅샷 이후의 변경 내역 적용
+        changeLog.replay(this::replacePut, this::removeById);
         
         // 데이터 파일이 비어있는 경우, 테스트용 기본 고객을 추가합니다.
         if (customerDatabase.isEmpty()) {
@@ -39,12 +61,16 @@ public class CustomerRepository {
             addInitialCustomers();
             saveData(); // 기본 데이터 저장
         }
+        // 버전 필드가 없던 예전 데이터와 기본 데이터는 버전 1 부터 시작
+        for (Customer c : customerDatabase.values()) {
+            if (c.getVersion() == 0) c.setVersion(1);
+        }
     }
 
     // 기본 테스트 고객 데이터 추가
     private void addInitialCustomers() {
-        customerDatabase.add(new Customer(generateId(), "김철수", "010-1234-5678"));
-        customerDatabase.add(new Customer(generateId(), "이영희", "010-9876-5432"));
+        putIndexed(new Customer(generateId(), "김철수", "010-1234-5678"));
+        putIndexed(new Customer(generateId(), "이영희", "010-9876-5432"));
     }
 
     // 고객 ID 생성 메서드 (편의상 UUID 사용)
@@ -85,15 +111,63 @@ public class CustomerRepository {
     }
 
     /**
-     * 메모리의 고객 목록을 파일에 저장(덮어쓰기)합니다. (Save)
+     * 메모리의 고객 목록 전체를 스냅샷으로 저장하고 변경 로그를 비웁니다. (Save)
      */
     public synchronized void saveData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(customerDatabase);
-            System.out.println("💾 고객 데이터 저장 완료.");
-        } catch (IOException e) {
-            System.err.println("❌ 고객 데이터 저장 실패: " + e.getMessage());
-            e.printStackTrace();
+        // 파일 형식은 기존과 같은 List<Customer>
+        changeLog.compact(new ArrayList<>(customerDatabase.values()));
+    }
+
+    // 로그 재적용용: 같은 ID 가 있으면 교체, 없으면 추가
+    private void replacePut(String customerId, Customer customer) {
+        putIndexed(customer);
+    }
+
+    // =========================================================================
+    //                        색인 관리 (ID / 전화번호)
+    // =========================================================================
+
+    /**
+     * 전화번호 비교용 정규화: 숫자만 남깁니다. ("010-1234-5678" 과 "01012345678" 은 같은 번호)
+     */
+    public static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) return "";
+        StringBuilder sb = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char ch = phoneNumber.charAt(i);
+            if (ch >= '0' && ch <= '9') sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+    // 고객을 저장하고 색인을 갱신 (같은 ID 가 있으면 교체, 목록 순서는 유지)
+    private void putIndexed(Customer customer) {
+        Customer previous = customerDatabase.put(customer.getCustomerId(), customer);
+        snapshot = null;
+        revision++;
+        if (previous != null) {
+            unindexPhone(previous);
+        }
+        phoneIndex.computeIfAbsent(normalizePhone(customer.getPhoneNumber()), k -> new LinkedHashSet<>())
+                .add(customer.getCustomerId());
+    }
+
+    private Customer removeById(String customerId) {
+        Customer removed = customerDatabase.remove(customerId);
+        if (removed != null) {
+            snapshot = null;
+            revision++;
+            unindexPhone(removed);
+        }
+        return removed;
+    }
+
+    private void unindexPhone(Customer customer) {
+        String phone = normalizePhone(customer.getPhoneNumber());
+        Set<String> ids = phoneIndex.get(phone);
+        if (ids != null) {
+            ids.remove(customer.getCustomerId());
+            if (ids.isEmpty()) phoneIndex.remove(phone);
         }
     }
 
@@ -102,53 +176,87 @@ public class CustomerRepository {
     // =========================================================================
 
     /** C: 새 고객 등록 */
-    public Customer addCustomer(Customer customer) {
+    public synchronized Customer addCustomer(Customer customer) {
         // 아이디나 전화번호 중복 체크 로직은 Service 계층에서 수행하는 것이 일반적
-        customerDatabase.add(customer);
-        saveData();
+        customer.setVersion(1);
+        putIndexed(customer);
+        changeLog.put(customer.getCustomerId(), customer);
         return customer;
     }
 
-    /** R: 모든 고객 목록 조회 */
+    /**
+     * R: 모든 고객 목록 조회
+     * 수정할 수 없는 스냅샷을 반환하므로, 그 사이 변경이 없으면 복사나 잠금 없이 같은 목록을 돌려줍니다.
+     */
     public List<Customer> findAllCustomers() {
-        // 복사본을 반환하여 외부에서 원본 리스트를 직접 수정하는 것을 방지
-        return new ArrayList<>(customerDatabase); 
+        List<Customer> current = snapshot;
+        return current != null ? current : rebuildSnapshot();
+    }
+
+    private synchronized List<Customer> rebuildSnapshot() {
+        if (snapshot == null) {
+            snapshot = List.copyOf(customerDatabase.values());
+        }
+        return snapshot;
+    }
+
+    /** 고객 데이터의 변경 횟수 (잠금 없음, 조회 응답 캐시가 최신인지 확인하는 용도) */
+    public long revision() {
+        return revision;
     }
 
     /** R: ID로 고객 1명 조회 */
-    public Customer findCustomerById(String customerId) {
-        return customerDatabase.stream()
-                .filter(c -> c.getCustomerId().equals(customerId))
-                .findFirst()
-                .orElse(null);
+    public synchronized Customer findCustomerById(String customerId) {
+        return customerDatabase.get(customerId);
     }
     
-    /** R: 전화번호로 고객 1명 조회 (예약 모듈에서 유용) */
-    public Customer findCustomerByPhone(String phoneNumber) {
-        return customerDatabase.stream()
-                .filter(c -> c.getPhoneNumber().equals(phoneNumber))
-                .findFirst()
-                .orElse(null);
-    }
-
-    /** U: 고객 정보 수정 */
-    public Customer updateCustomer(Customer updatedCustomer) {
-        for (int i = 0; i < customerDatabase.size(); i++) {
-            if (customerDatabase.get(i).getCustomerId().equals(updatedCustomer.getCustomerId())) {
-                customerDatabase.set(i, updatedCustomer);
-                saveData();
-                return updatedCustomer;
-            }
+    /** R: 전화번호로 고객 1명 조회 (예약 모듈에서 유용, 하이픈 등 숫자 외 문자는 무시) */
+    public synchronized Customer findCustomerByPhone(String phoneNumber) {
+        Set<String> ids = phoneIndex.get(normalizePhone(phoneNumber));
+        if (ids == null || ids.isEmpty()) return null;
+        return customerDatabase.get(ids.iterator().next());
+    }
+
+    /**
+     * R: 다른 고객(excludeId 제외)이 이미 같은 전화번호를 사용 중인지 확인
+     */
+    public synchronized boolean isPhoneNumberInUse(String phoneNumber, String excludeId) {
+        Set<String> ids = phoneIndex.get(normalizePhone(phoneNumber));
+        if (ids == null) return false;
+        for (String id : ids) {
+            if (!id.equals(excludeId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * U: 고객 정보 수정 (읽었던 version 과 현재 version 이 같을 때만 반영, 0 은 검사 생략)
+     * 전화번호 중복 검사도 같은 잠금 안에서 하므로, 동시에 수정해도 같은 번호가 두 고객에게 저장되지 않습니다.
+     * @throws VersionConflictException 다른 사용자가 먼저 수정한 경우 (현재 고객 정보 포함)
+     * @throws DuplicateIdException 다른 고객이 같은 전화번호(정규화 기준)를 쓰고 있는 경우
+     */
+    public synchronized Customer updateCustomer(Customer updatedCustomer) throws VersionConflictException, DuplicateIdException {
+        Customer current = customerDatabase.get(updatedCustomer.getCustomerId());
+        if (current == null) {
+            return null; // 수정 실패 (ID를 찾지 못함)
+        }
+        if (updatedCustomer.getVersion() != 0 && updatedCustomer.getVersion() != current.getVersion()) {
+            throw new VersionConflictException("고객 정보를 다른 사용자가 먼저 수정했습니다. (현재 버전 " + current.getVersion() + ")", current);
+        }
+        if (isPhoneNumberInUse(updatedCustomer.getPhoneNumber(), updatedCustomer.getCustomerId())) {
+            throw new DuplicateIdException("오류: 입력된 전화번호는 이미 다른 고객에게 등록되어 있습니다.");
         }
-        return null; // 수정 실패 (ID를 찾지 못함)
+        updatedCustomer.setVersion(current.getVersion() + 1);
+        putIndexed(updatedCustomer);
+        changeLog.put(updatedCustomer.getCustomerId(), updatedCustomer);
+        return updatedCustomer;
     }
 
     /** D: 고객 삭제 */
-    public Customer deleteCustomer(String customerId) {
-        Customer customerToRemove = findCustomerById(customerId);
+    public synchronized Customer deleteCustomer(String customerId) {
+        Customer customerToRemove = removeById(customerId);
         if (customerToRemove != null) {
-            customerDatabase.remove(customerToRemove);
-            saveData();
+            changeLog.delete(customerId);
             return customerToRemove;
         }
         return null; // 삭제 실패 (ID를 찾지 못함)
@@ -1,10 +1,26 @@
 package cse.hotel.server.repository;
 
+import cse.hotel.common.model.FoodOrder;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 룸서비스 주문 내역 저장소
+ *
+ * 주문 요청은 잠금 없는 큐에 넣기만 하고, 목록 반영과 변경 로그 기록은
+ * PersistenceScheduler 의 기록 주기(또는 조회 직전)에 한꺼번에 처리합니다.
+ * 단, --durability=always 이면 응답 전에 디스크 반영을 기다려야 하므로 바로 기록합니다.
+ *
+ * 주문은 추가만 되므로 목록은 AppendOnlyList 로 두고, 조회는 복사 없는 스냅샷을 돌려줍니다.
+ * 그 사이 받은 주문이 없으면 잠금도 잡지 않습니다.
+ *
+ * 주문은 FoodOrder 로 저장합니다. 예전 파일/로그의 주문서(Map)는 읽을 때 FoodOrder 로 바꾸고,
+ * 다음 스냅샷 저장 때 새 형식으로 다시 기록됩니다.
+ */
 public class FoodOrderRepository {
     
     // 저장할 파일명
@@ -12,8 +28,23 @@ public class FoodOrderRepository {
     
     private static final FoodOrderRepository instance = new FoodOrderRepository();
     
-    // 주문서(Map)들을 모아두는 리스트
-    private List<Map<String, Object>> orderList;
+    // 주문들을 모아두는 리스트
+    private AppendOnlyList<FoodOrder> orderList;
+
+    // 지금까지 받은 주문 수 (큐에 있는 주문 포함, 스냅샷이 최신인지 확인용)
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    // 일별 매출 집계 (보고서용, 주문이 목록에 반영될 때 함께 갱신)
+    private final RevenueLedger ledger = RevenueLedger.getInstance();
+
+    // 아직 목록에 반영하지 않은 주문 (요청 스레드가 잠금 없이 추가)
+    private final ConcurrentLinkedQueue<FoodOrder> incoming = new ConcurrentLinkedQueue<>();
+    private final boolean writeBehind =
+            PersistenceScheduler.getInstance().getDurability() != PersistenceScheduler.Durability.ALWAYS;
+
+    // 변경 내역 로그 (data/food_orders.log) - 주문은 추가만 되므로 목록 위치를 키로 사용
+    // (예전 로그에는 Map 주문서가 남아 있을 수 있으므로 값은 읽을 때 변환)
+    private final ChangeLog<Integer, Serializable> changeLog = new ChangeLog<>("주문 내역", new File(FILE_PATH), this::save);
 
     private FoodOrderRepository() {
         // 폴더 없으면 생성
@@ -22,7 +53,15 @@ public class FoodOrderRepository {
             file.getParentFile().mkdirs();
         }
         // 파일 로드
-        this.orderList = load();
+        this.orderList = new AppendOnlyList<>(load());
+        for (FoodOrder order : orderList.snapshot()) {
+            ledger.addOrder(order, 1);
+        }
+        // 마지막 스냅샷 이후에 추가된 주문 적용
+        changeLog.replay((index, value) -> putAt(index, toOrder(value)), index -> {});
+        accepted.set(orderList.size());
+
+        PersistenceScheduler.getInstance().registerWriteBehind(this::drainIncoming);
     }
 
     public static FoodOrderRepository getInstance() {
@@ -30,43 +69,118 @@ public class FoodOrderRepository {
     }
 
     // --- 주문 추가 (저장) ---
-    public void addOrder(Map<String, Object> orderMap) {
-        orderList.add(orderMap);
-        save(); // 추가하자마자 파일에 저장
+    public void addOrder(FoodOrder order) {
+        if (writeBehind) {
+            incoming.add(order); // 기록은 백그라운드에서
+            accepted.incrementAndGet();
+            return;
+        }
+        synchronized (this) {
+            append(order);
+            accepted.incrementAndGet();
+        }
+    }
+
+    private void append(FoodOrder order) {
+        orderList.add(order);
+        ledger.addOrder(order, 1);
+        changeLog.put(orderList.size() - 1, order);
+    }
+
+    // 큐에 쌓인 주문을 들어온 순서대로 목록과 로그에 반영
+    private synchronized void drainIncoming() {
+        FoodOrder order;
+        while ((order = incoming.poll()) != null) {
+            append(order);
+        }
+    }
+
+    /** 큐에 쌓인 주문을 지금 목록(과 매출 집계)에 반영합니다. (보고서 생성 직전에 호출) */
+    public synchronized void applyPending() {
+        drainIncoming();
     }
 
     // --- 전체 주문 조회 ---
-    public List<Map<String, Object>> findAll() {
-        return new ArrayList<>(orderList);
+    /** 전체 주문 (수정할 수 없는 목록, 받은 주문이 모두 반영된 스냅샷이 있으면 잠금 없이 반환) */
+    public List<FoodOrder> findAll() {
+        List<FoodOrder> snapshot = orderList.lastSnapshot();
+        if (snapshot != null && snapshot.size() == accepted.get()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            drainIncoming();
+            return orderList.snapshot();
+        }
     }
 
-    // --- 파일 쓰기 (직렬화) ---
-    private void save() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH))) {
-            oos.writeObject(orderList);
-            System.out.println("💾 주문 내역 저장 완료 (" + orderList.size() + "건)");
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("❌ 주문 저장 실패");
+    // --- 파일 쓰기 (전체 스냅샷 저장 후 변경 로그 비우기) ---
+    private synchronized void save() {
+        drainIncoming();
+        changeLog.compact(new ArrayList<>(orderList.snapshot()));
+    }
+
+    // 로그 재적용용: 같은 위치의 주문이 이미 있으면 교체 (같은 레코드가 두 번 기록돼도 중복되지 않도록)
+    private void putAt(int index, FoodOrder order) {
+        if (index < orderList.size()) {
+            ledger.addOrder(orderList.get(index), -1);
+            orderList.set(index, order);
+        } else {
+            orderList.add(order);
         }
+        ledger.addOrder(order, 1);
     }
-    public List<Map<String, Object>> getAllOrders() {
-        return load();
+
+    // 메모리의 주문 목록 (로그까지 반영된 상태)
+    public List<FoodOrder> getAllOrders() {
+        return findAll();
     }
 
     // --- 파일 읽기 (역직렬화) ---
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> load() {
+    private List<FoodOrder> load() {
         File file = new File(FILE_PATH);
         if (!file.exists()) {
             return new ArrayList<>(); // 파일 없으면 빈 리스트 시작
         }
 
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            return (List<Map<String, Object>>) ois.readObject();
+            List<FoodOrder> orders = new ArrayList<>();
+            for (Object value : (List<?>) ois.readObject()) {
+                orders.add(toOrder(value));
+            }
+            return orders;
         } catch (Exception e) {
             System.out.println("새로운 주문 장부를 생성합니다.");
             return new ArrayList<>();
         }
     }
-}
\ No newline at end of file
+
+    // 예전 형식(Map 주문서)을 FoodOrder 로 변환 (orderDate 만 있으면 날짜만 주문 시각으로 사용)
+    private static FoodOrder toOrder(Object value) {
+        if (value instanceof FoodOrder order) {
+            return order;
+        }
+        Map<?, ?> map = (Map<?, ?>) value;
+        Object time = map.get("orderTime") != null ? map.get("orderTime") : map.get("orderDate");
+        return new FoodOrder(
+                (String) map.get("orderId"),
+                (String) map.get("customerId"),
+                toInt(map.get("roomNumber")),
+                (String) map.get("foodName"),
+                toInt(map.get("count")),
+                toInt(map.get("totalPrice")),
+                time instanceof String text ? text : null);
+    }
+
+    // Integer 또는 숫자 문자열 (형식이 잘못되면 0)
+    private static int toInt(Object value) {
+        if (value instanceof Number n) return n.intValue();
+        if (value instanceof String s) {
+            try {
+                return Integer.parseInt(s.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
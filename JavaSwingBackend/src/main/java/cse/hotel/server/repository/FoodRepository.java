@@ -1,89 +1,300 @@
 package cse.hotel.server.repository;
 
+import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.exception.VersionConflictException;
 import cse.hotel.common.model.Food;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * 식음료 메뉴 저장소
+ *
+ * 메뉴는 이름으로 색인하고, 재고와 버전은 메뉴별 AtomicReference 로 따로 관리합니다.
+ * 주문 시 재고 차감은 잠금 없이 CAS 로 처리하므로 서로 다른 메뉴의 주문은 경합하지 않습니다.
+ * 재고가 바뀔 때마다 버전도 함께 올라가므로, 관리자가 오래된 재고로 덮어쓰는 수정은 충돌로 거부됩니다.
+ * 차감된 재고는 바로 기록하지 않고 "변경된 메뉴" 로만 표시해 두었다가,
+ * PersistenceScheduler 가 기록 주기마다 메뉴별 최종 재고를 1건씩 변경 로그에 남깁니다.
+ * (--durability=always 이면 응답 전에 디스크 반영을 기다려야 하므로 차감할 때 바로 기록)
+ *
+ * 전체 메뉴 조회는 만들어 둔 불변 목록을 그대로 돌려주며,
+ * 메뉴가 바뀌었거나 목록을 만들 때의 재고/버전과 달라진 메뉴가 있을 때만 새로 만듭니다.
+ */
 public class FoodRepository {
-    
+
     // 메뉴 데이터 저장 파일
     private static final String FILE_PATH = "data/fnb_menu.ser";
-    
+
     private static final FoodRepository instance = new FoodRepository();
-    private List<Food> foodList;
+
+    // 메뉴 이름 -> 메뉴 (등록 순서 유지, 이 객체의 잠금으로 보호)
+    private final Map<String, Food> menu = new LinkedHashMap<>();
+
+    /** 재고 차감 결과 (차감 후 남은 수량, 차감한 시점의 메뉴 가격) */
+    public record StockDeduction(int remaining, int unitPrice) {}
+
+    // 메뉴의 현재 재고, 버전, 가격 (함께 교체, 주문 시 가격도 잠금 없이 읽음)
+    private record StockState(long version, int quantity, int price) {}
+
+    // 메뉴 이름 -> 현재 재고/버전 (주문 시 잠금 없이 CAS 로 차감)
+    private final Map<String, AtomicReference<StockState>> stockByName = new ConcurrentHashMap<>();
+
+    // 재고가 바뀌었지만 아직 로그에 기록하지 않은 메뉴 이름
+    private final Set<String> dirtyStock = ConcurrentHashMap.newKeySet();
+    // always 정책이면 응답 전에 디스크 반영을 기다려야 하므로 차감한 재고를 요청 스레드에서 바로 기록
+    private final boolean writeBehind =
+            PersistenceScheduler.getInstance().getDurability() != PersistenceScheduler.Durability.ALWAYS;
+
+    // 전체 메뉴 조회용 불변 목록과, 목록을 만들 때 읽은 메뉴별 재고/버전
+    private record MenuSnapshot(List<Food> foods, List<AtomicReference<StockState>> stocks, StockState[] states) {
+        // 그 사이 주문이나 수정으로 바뀐 재고가 없는지 (잠금 없이 확인)
+        boolean isCurrent() {
+            for (int i = 0; i < states.length; i++) {
+                if (stocks.get(i).get() != states[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    // 메뉴 추가/삭제/교체 시 null
+    private volatile MenuSnapshot snapshot;
+
+    // 변경 횟수 (메뉴 변경은 잠금 안에서, 주문에 의한 재고 차감은 잠금 없이 따로 셈)
+    private volatile long menuRevision;
+    private final LongAdder stockChanges = new LongAdder();
+
+    // 변경 내역 로그 (data/fnb_menu.log)
+    private final ChangeLog<String, Food> changeLog = new ChangeLog<>("식음료 메뉴", new File(FILE_PATH), this::save);
 
     private FoodRepository() {
         File file = new File(FILE_PATH);
         if (file.getParentFile() != null && !file.getParentFile().exists()) {
             file.getParentFile().mkdirs();
         }
-        this.foodList = load();
-        
+        for (Food food : load()) {
+            putIndexed(food);
+        }
+        // 마지막 스냅샷 이후의 변경 내역 적용
+        changeLog.replay(this::replacePut, this::removeByName);
+
         // 초기 메뉴 자동 생성
-        if (this.foodList.isEmpty()) {
+        if (this.menu.isEmpty()) {
             addFood(new Food("치킨", 20000, "바삭한 후라이드", 10));
             addFood(new Food("피자", 25000, "치즈 듬뿍", 10));
             addFood(new Food("콜라", 2000, "코카콜라 500ml", 50));
             addFood(new Food("맥주", 5000, "생맥주 500cc", 30));
-            save(); 
+            save();
         }
+
+        // 차감된 재고는 기록 주기마다 모아서 기록
+        PersistenceScheduler.getInstance().registerWriteBehind(this::writeDirtyStock);
     }
 
     public static FoodRepository getInstance() {
         return instance;
     }
 
-    // --- 조회 ---
+    // --- 조회 (현재 재고/버전이 반영된 복사본을 반환) ---
+
+    /** 전체 메뉴 (수정할 수 없는 목록, 변경이 없으면 복사나 잠금 없이 같은 목록) */
     public List<Food> findAll() {
-        return new ArrayList<>(foodList);
+        MenuSnapshot current = snapshot;
+        if (current != null && current.isCurrent()) {
+            return current.foods();
+        }
+        return rebuildSnapshot();
     }
 
-    public Food findByName(String name) {
-        for (Food f : foodList) {
-            if (f.getName().equals(name)) return f;
+    /** 메뉴/재고의 변경 횟수 (잠금 없음, 조회 응답 캐시가 최신인지 확인하는 용도) */
+    public long revision() {
+        return menuRevision + stockChanges.sum();
+    }
+
+    private synchronized List<Food> rebuildSnapshot() {
+        List<Food> foods = new ArrayList<>(menu.size());
+        List<AtomicReference<StockState>> stocks = new ArrayList<>(menu.size());
+        StockState[] states = new StockState[menu.size()];
+        for (Food food : menu.values()) {
+            AtomicReference<StockState> stock = stockByName.get(food.getName());
+            StockState state = stock.get();
+            Food copy = new Food(food.getName(), food.getPrice(), food.getDescription(), food.getStock());
+            applyState(copy, state);
+            states[foods.size()] = state;
+            stocks.add(stock);
+            foods.add(copy);
         }
-        return null;
+        MenuSnapshot rebuilt = new MenuSnapshot(List.copyOf(foods), List.copyOf(stocks), states);
+        snapshot = rebuilt;
+        return rebuilt.foods();
+    }
+
+    public synchronized Food findByName(String name) {
+        Food food = menu.get(name);
+        return food == null ? null : copyWithCurrentState(food);
     }
 
     // --- 추가 ---
-    public void addFood(Food food) {
-        // 이름 중복 시 덮어쓰기 혹은 무시 (여기선 추가)
-        foodList.add(food);
-        save();
+    public synchronized void addFood(Food food) {
+        // 이름 중복 시 덮어쓰기 (로그가 메뉴 이름을 키로 기록하므로 같은 이름은 하나만 유지)
+        AtomicReference<StockState> previous = stockByName.get(food.getName());
+        food.setVersion(previous == null ? 1 : previous.get().version() + 1);
+        replacePut(food.getName(), food);
+        changeLog.put(food.getName(), food);
     }
 
-    // --- 수정 (재고 업데이트 포함) ---
-    public void updateFood(Food updatedFood) {
-        for (int i = 0; i < foodList.size(); i++) {
-            if (foodList.get(i).getName().equals(updatedFood.getName())) {
-                foodList.set(i, updatedFood);
-                save(); // 변경 즉시 저장
-                return;
+    /**
+     * 수정 (관리자가 입력한 가격/설명/재고로 교체)
+     * updatedFood 의 version 이 현재 version 과 다르면(그 사이 수정이나 주문이 있었으면) 반영하지 않습니다.
+     * (0 은 버전을 모르는 예전 클라이언트로 보고 검사 생략)
+     * @return 수정된 메뉴 (새 version), 메뉴가 없으면 null
+     * @throws VersionConflictException 다른 사용자의 수정이나 주문으로 버전이 바뀐 경우 (현재 메뉴 포함)
+     */
+    public synchronized Food updateFood(Food updatedFood) throws VersionConflictException {
+        Food current = menu.get(updatedFood.getName());
+        if (current == null) return null;
+        AtomicReference<StockState> stock = stockByName.get(updatedFood.getName());
+        while (true) {
+            StockState state = stock.get();
+            if (updatedFood.getVersion() != 0 && updatedFood.getVersion() != state.version()) {
+                throw new VersionConflictException("'" + updatedFood.getName() + "' 메뉴를 다른 사용자가 먼저 수정했거나 주문이 들어왔습니다. (현재 버전 "
+                        + state.version() + ")", copyWithCurrentState(current));
+            }
+            StockState next = new StockState(state.version() + 1, updatedFood.getStock(), updatedFood.getPrice());
+            if (stock.compareAndSet(state, next)) { // 실패하면 그 사이 주문이 들어온 것이므로 다시 확인
+                updatedFood.setVersion(next.version());
+                menu.put(updatedFood.getName(), updatedFood);
+                snapshot = null;
+                menuRevision++;
+                changeLog.put(updatedFood.getName(), updatedFood); // 변경 즉시 기록
+                return copyWithCurrentState(updatedFood);
             }
         }
     }
-    
-    // 리스트 전체 업데이트 (재고 차감 시 사용)
-    public void updateFoodList(List<Food> newList) {
-        this.foodList = newList;
+
+    // 리스트 전체 교체 (전체 스냅샷으로 저장)
+    public synchronized void updateFoodList(List<Food> newList) {
+        menu.clear();
+        snapshot = null;
+        menuRevision++;
+        stockByName.clear();
+        dirtyStock.clear();
+        for (Food food : newList) {
+            putIndexed(food);
+        }
         save();
     }
 
     // --- 삭제 ---
-    public void deleteFood(String foodName) {
-        foodList.removeIf(f -> f.getName().equals(foodName));
-        save();
+    public synchronized void deleteFood(String foodName) {
+        removeByName(foodName);
+        changeLog.delete(foodName);
+    }
+
+    // --- 재고 차감 (주문) ---
+
+    /**
+     * 메뉴의 재고를 count 만큼 원자적으로 차감합니다. (잠금 없음)
+     * 재고가 부족하면 차감하지 않습니다.
+     * @return 차감 후 남은 수량과 차감한 시점의 가격
+     */
+    public StockDeduction decreaseStock(String foodName, int count) throws DataNotFoundException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("주문 수량은 1개 이상이어야 합니다.");
+        }
+        AtomicReference<StockState> stock = stockByName.get(foodName);
+        if (stock == null) {
+            throw new DataNotFoundException("존재하지 않는 메뉴입니다: " + foodName);
+        }
+        while (true) {
+            StockState current = stock.get();
+            if (current.quantity() < count) {
+                throw new IllegalStateException("재고가 부족합니다. (남은 수량: " + current.quantity() + ")");
+            }
+            if (stock.compareAndSet(current, new StockState(current.version() + 1, current.quantity() - count, current.price()))) {
+                if (writeBehind) {
+                    dirtyStock.add(foodName);
+                } else {
+                    writeStock(foodName);
+                }
+                stockChanges.increment();
+                return new StockDeduction(current.quantity() - count, current.price());
+            }
+        }
+    }
+
+    // 재고가 바뀐 메뉴의 최종 재고를 변경 로그에 기록 (PersistenceScheduler 스레드에서 호출)
+    private synchronized void writeDirtyStock() {
+        Iterator<String> it = dirtyStock.iterator();
+        while (it.hasNext()) {
+            String name = it.next();
+            it.remove(); // 먼저 지워야 이후의 차감이 다시 표시됨
+            writeStock(name);
+        }
+    }
+
+    // 메뉴의 현재 재고를 변경 로그에 기록
+    private synchronized void writeStock(String name) {
+        Food food = menu.get(name);
+        AtomicReference<StockState> stock = stockByName.get(name);
+        if (food == null || stock == null) return; // 그 사이 삭제된 메뉴
+        applyState(food, stock.get());
+        changeLog.put(name, food);
     }
 
     // --- 파일 I/O ---
-    private void save() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH))) {
-            oos.writeObject(foodList);
-            System.out.println("식음료 메뉴 저장 완료 (" + foodList.size() + "건)");
-        } catch (IOException e) {
-            e.printStackTrace();
+    // 전체 스냅샷 저장 후 변경 로그 비우기 (아직 기록하지 않은 재고도 포함)
+    private synchronized void save() {
+        ArrayList<Food> snapshot = new ArrayList<>(menu.size());
+        for (Food food : menu.values()) {
+            applyState(food, stockByName.get(food.getName()).get());
+            snapshot.add(food);
+        }
+        changeLog.compact(snapshot);
+    }
+
+    // 로그 재적용용: 같은 이름이 있으면 그 자리에서 교체, 없으면 추가
+    private void replacePut(String name, Food food) {
+        putIndexed(food);
+    }
+
+    // 메뉴를 저장하고 재고/버전을 메뉴의 값으로 맞춤
+    private void putIndexed(Food food) {
+        if (food.getVersion() == 0) food.setVersion(1); // 버전 필드가 없던 예전 데이터
+        menu.put(food.getName(), food);
+        snapshot = null;
+        menuRevision++;
+        stockByName.computeIfAbsent(food.getName(), k -> new AtomicReference<>())
+                .set(new StockState(food.getVersion(), food.getStock(), food.getPrice()));
+    }
+
+    private void removeByName(String name) {
+        menu.remove(name);
+        snapshot = null;
+        menuRevision++;
+        stockByName.remove(name);
+        dirtyStock.remove(name);
+    }
+
+    private static void applyState(Food food, StockState state) {
+        food.setStock(state.quantity());
+        food.setVersion(state.version());
+    }
+
+    private Food copyWithCurrentState(Food food) {
+        Food copy = new Food(food.getName(), food.getPrice(), food.getDescription(), food.getStock());
+        copy.setVersion(food.getVersion());
+        AtomicReference<StockState> stock = stockByName.get(food.getName());
+        if (stock != null) {
+            applyState(copy, stock.get());
         }
+        return copy;
     }
 
     @SuppressWarnings("unchecked")
@@ -97,4 +308,4 @@ public class FoodRepository {
             return new ArrayList<>();
         }
     }
-}
\ No newline at end of file
+}
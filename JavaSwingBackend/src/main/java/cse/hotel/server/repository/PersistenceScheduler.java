@@ -0,0 +1,317 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.server.ServerConfig;
+import cse.hotel.server.ServerMetrics;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 변경 로그 기록 스케줄러 (Group Commit / Write-Behind)
+ *
+ * Repository 의 변경은 ChangeLog 의 메모리 버퍼에만 쌓이고,
+ * 백그라운드 스레드 1개가 --flush-interval-ms 주기 또는 --flush-dirty-threshold 건이 쌓였을 때
+ * 모든 로그를 한 번에 디스크에 씁니다. 스냅샷 저장(compaction)도 이 스레드에서 수행합니다.
+ * 요청 처리 중에는 "바뀌었다" 는 표시만 남기는 Repository(재고 등)는 registerWriteBehind 로
+ * 작업을 등록해 두면, 기록 주기마다 이 스레드가 먼저 호출해 변경 로그에 옮겨 담습니다.
+ * UnitOfWork 가 진행 중인 동안에는 스냅샷 저장을 미뤄, 커밋 전의 변경이 스냅샷에 섞이지 않게 합니다.
+ *
+ * 디스크 반영 정책 (--durability)
+ * - none   : 주기적으로 파일에 쓰기만 하고 fsync 는 하지 않음 (OS 에 맡김)
+ * - batch  : 주기마다 fsync 까지 수행. 요청은 기다리지 않음 (기본값)
+ * - always : 요청 스레드는 자신의 변경이 fsync 될 때까지 응답을 보내지 않음.
+ *            동시에 들어온 요청들은 한 번의 fsync 를 함께 기다립니다.
+ */
+public final class PersistenceScheduler {
+
+    public enum Durability { NONE, BATCH, ALWAYS }
+
+    /** 기록 주기마다 로그를 쓰기 전에 실행하는 작업 (실패하면 그 주기의 변경을 반영 완료로 표시하지 않음) */
+    @FunctionalInterface
+    interface WriteBehindTask {
+        void run() throws IOException;
+    }
+
+    private static final PersistenceScheduler instance = new PersistenceScheduler();
+
+    // 현재 스레드가 마지막으로 기록한 변경의 LSN (응답 전에 디스크 반영을 기다릴 때 사용)
+    private static final ThreadLocal<long[]> lastWrittenLsn = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Durability durability;
+    private final long intervalMillis;
+    private final int dirtyThreshold;
+
+    private final List<ChangeLog<?, ?>> logs = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> compactions = new ConcurrentLinkedQueue<>();
+    private final List<WriteBehindTask> writeBehindTasks = new CopyOnWriteArrayList<>();
+    private final AtomicInteger dirtyRecords = new AtomicInteger();
+
+    // 진행 중인 UnitOfWork(읽기 잠금) 와 스냅샷 저장(쓰기 잠금) 사이의 잠금
+    private final ReentrantReadWriteLock transactionGate = new ReentrantReadWriteLock();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private boolean urgent;
+    private long durableLsn;
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder syncCount = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    private PersistenceScheduler() {
+        this.durability = Durability.valueOf(ServerConfig.durability().toUpperCase());
+        this.intervalMillis = Math.max(1, ServerConfig.flushIntervalMillis());
+        this.dirtyThreshold = Math.max(1, ServerConfig.flushDirtyThreshold());
+
+        Thread flusher = new Thread(this::runFlusher, "persistence-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        // 종료 시 남은 변경을 모두 기록
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushNow, "persistence-shutdown"));
+        ServerMetrics.register("persistence", this::getStats);
+    }
+
+    public static PersistenceScheduler getInstance() {
+        return instance;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    // =========================================================================
+    //                          ChangeLog 에서 호출
+    // =========================================================================
+
+    void register(ChangeLog<?, ?> log) {
+        logs.add(log);
+    }
+
+    /** 변경 1건이 버퍼에 쌓였음을 알립니다. (현재 스레드의 응답은 always 정책에서 이 LSN 의 반영을 기다림) */
+    void onAppend(long lsn) {
+        lastWrittenLsn.get()[0] = lsn;
+        if (dirtyRecords.incrementAndGet() >= dirtyThreshold) {
+            wakeFlusher();
+        }
+    }
+
+    /**
+     * 기록 주기마다 로그를 쓰기 전에 호출할 작업을 등록합니다.
+     * 작업은 Repository 의 잠금을 잡고 밀린 변경을 ChangeLog 에 put/delete 하거나, 자신의 파일에 직접 기록해야 합니다.
+     * 직접 기록하는 작업은 record 시점에 nextLsn 으로 받은 LSN 을 onAppend 로 알려야 always 정책의 대기에 포함됩니다.
+     */
+    void registerWriteBehind(WriteBehindTask task) {
+        writeBehindTasks.add(task);
+    }
+
+    /** 스냅샷 저장 작업을 백그라운드 스레드에 맡깁니다. */
+    void requestCompaction(Runnable compaction) {
+        compactions.add(compaction);
+        wakeFlusher();
+    }
+
+    // =========================================================================
+    //                            요청 스레드에서 호출
+    // =========================================================================
+
+    /**
+     * always 정책이면 현재 스레드가 남긴 변경이 디스크에 반영될 때까지 기다립니다.
+     * (응답을 보내기 직전에 호출. 다른 정책에서는 바로 반환)
+     * @return 디스크 반영이 확인되었거나 기다릴 필요가 없으면 true
+     */
+    public boolean awaitDurable() throws InterruptedException {
+        long[] holder = lastWrittenLsn.get();
+        long lsn = holder[0];
+        holder[0] = 0;
+        if (durability != Durability.ALWAYS || lsn == 0) {
+            return true;
+        }
+
+        lock.lock();
+        long start = System.nanoTime();
+        try {
+            if (durableLsn >= lsn) return true;
+            waitCount.increment();
+            urgent = true;
+            flushRequested.signal();
+            long remaining = TimeUnit.SECONDS.toNanos(10);
+            while (durableLsn < lsn) {
+                if (remaining <= 0) {
+                    System.err.println("⚠️ 변경 내용의 디스크 반영을 확인하지 못했습니다. (LSN " + lsn + ")");
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            waitNanos.add(System.nanoTime() - start);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** UnitOfWork 시작 (끝날 때까지 스냅샷 저장을 미룸) */
+    void beginTransaction() {
+        transactionGate.readLock().lock();
+    }
+
+    void endTransaction() {
+        transactionGate.readLock().unlock();
+    }
+
+    /** 쌓인 변경을 즉시 모두 기록합니다. (종료 시 사용) */
+    public void flushNow() {
+        flushCycle();
+    }
+
+    // =========================================================================
+    //                              백그라운드 스레드
+    // =========================================================================
+
+    private void wakeFlusher() {
+        lock.lock();
+        try {
+            urgent = true;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            try {
+                lock.lock();
+                try {
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                    while (!urgent && remaining > 0) {
+                        remaining = flushRequested.awaitNanos(remaining);
+                    }
+                    urgent = false;
+                } finally {
+                    lock.unlock();
+                }
+                flushCycle();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ 변경 로그 기록 스레드 오류: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 모든 로그의 버퍼를 기록합니다.
+     * 시작 시점까지 발급된 LSN 은 이 주기에서 모두 기록되므로, 성공하면 그 값까지 반영 완료로 표시합니다.
+     * 지연 기록 작업은 target 을 읽은 뒤에 실행하므로, target 이전에 표시된 변경도 이 주기에 함께 기록됩니다.
+     */
+    private synchronized void flushCycle() {
+        long target = ChangeLog.currentLsn();
+        dirtyRecords.set(0);
+
+        boolean ok = true;
+        for (WriteBehindTask task : writeBehindTasks) {
+            try {
+                task.run();
+            } catch (IOException e) {
+                ok = false;
+                failureCount.increment();
+                System.err.println("❌ 지연 기록 실패: " + e.getMessage());
+            }
+        }
+
+        if (!compactions.isEmpty()) {
+            transactionGate.writeLock().lock();
+            try {
+                Runnable compaction;
+                while ((compaction = compactions.poll()) != null) {
+                    compaction.run();
+                }
+            } finally {
+                transactionGate.writeLock().unlock();
+            }
+        }
+
+        boolean sync = durability != Durability.NONE;
+        int records = 0;
+        List<ChangeLog<?, ?>> written = new ArrayList<>();
+        for (ChangeLog<?, ?> log : logs) {
+            try {
+                int n = log.writePending();
+                if (n > 0) {
+                    records += n;
+                    written.add(log);
+                }
+            } catch (IOException e) {
+                ok = false;
+                failureCount.increment();
+                System.err.println("❌ 변경 로그 기록 실패: " + e.getMessage());
+            }
+        }
+        if (sync) {
+            long start = System.nanoTime();
+            for (ChangeLog<?, ?> log : written) {
+                try {
+                    log.sync();
+                } catch (IOException e) {
+                    ok = false;
+                    failureCount.increment();
+                    System.err.println("❌ 변경 로그 fsync 실패: " + e.getMessage());
+                }
+            }
+            if (!written.isEmpty()) {
+                syncCount.increment();
+                syncNanos.add(System.nanoTime() - start);
+            }
+        }
+        if (records > 0) {
+            flushCount.increment();
+            recordCount.add(records);
+        }
+
+        lock.lock();
+        try {
+            if (ok && target > durableLsn) {
+                durableLsn = target;
+            }
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long flushes = flushCount.sum();
+        long syncs = syncCount.sum();
+        long waits = waitCount.sum();
+        stats.put("persistence.durability", durability.name().toLowerCase());
+        stats.put("persistence.flushIntervalMs", intervalMillis);
+        stats.put("persistence.pendingRecords", dirtyRecords.get());
+        stats.put("persistence.flushes", flushes);
+        stats.put("persistence.recordsFlushed", recordCount.sum());
+        stats.put("persistence.avgBatchSize", flushes == 0 ? 0 : recordCount.sum() / flushes);
+        stats.put("persistence.fsyncs", syncs);
+        stats.put("persistence.avgFsyncMicros", syncs == 0 ? 0 : syncNanos.sum() / syncs / 1000);
+        stats.put("persistence.durableWaits", waits);
+        stats.put("persistence.avgWaitMicros", waits == 0 ? 0 : waitNanos.sum() / waits / 1000);
+        stats.put("persistence.failures", failureCount.sum());
+        return stats;
+    }
+}
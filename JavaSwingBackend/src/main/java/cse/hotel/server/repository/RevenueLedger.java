@@ -0,0 +1,245 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.common.model.ClientReservation;
+import cse.hotel.common.model.FoodOrder;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 일별 매출 집계 (보고서용)
+ *
+ * 예약과 룸서비스 주문이 저장될 때마다 해당 날짜의 집계에 바로 더하고 빼므로,
+ * 보고서는 예약/주문 목록을 다시 훑지 않고 미리 합산된 값만 더합니다.
+ * 날짜별 집계 외에 주(월요일 시작)별, 월별 합계도 함께 유지해서
+ * 긴 기간은 월 단위로, 남는 앞뒤 날짜만 일 단위로 더합니다.
+ *
+ * - 객실 매출, 예약 수, 취소 수: 예약의 체크인 날짜 기준
+ * - 식음료 매출, 주문 수, 메뉴별 수량/매출: 주문 시각의 날짜 기준 (날짜가 없는 예전 주문은 따로 합산)
+ *
+ * 예약/주문 Repository 가 자신의 잠금 안에서 갱신하며, 이 객체의 잠금은 다른 잠금을 잡지 않습니다.
+ */
+public final class RevenueLedger {
+
+    /** 보고서 표의 행 단위 */
+    public enum Rollup { DAILY, WEEKLY, MONTHLY }
+
+    /** 기간 합계 (fnbItems: 메뉴 이름 -> 판매 수량/매출, 매출이 큰 순) */
+    public record Totals(double roomRevenue, long fnbRevenue, int reservations, int cancellations, int fnbOrders,
+                         Map<String, ItemSales> fnbItems) {}
+
+    /** 메뉴 1개의 판매 수량과 매출 */
+    public record ItemSales(int quantity, long revenue) {}
+
+    /** 기간 1개 (start ~ end, 양 끝 포함) 의 합계 */
+    public record Period(LocalDate start, LocalDate end, Totals totals) {}
+
+    // 집계 칸 1개
+    private static final class Bucket {
+        double roomRevenue;
+        long fnbRevenue;
+        int reservations;
+        int cancellations;
+        int fnbOrders;
+        final Map<String, long[]> items = new HashMap<>(); // 메뉴 이름 -> {수량, 매출}
+
+        void addItem(String name, long quantity, long revenue) {
+            long[] item = items.computeIfAbsent(name, k -> new long[2]);
+            item[0] += quantity;
+            item[1] += revenue;
+            if (item[0] == 0 && item[1] == 0) items.remove(name);
+        }
+
+        boolean isEmpty() {
+            return roomRevenue == 0 && fnbRevenue == 0 && reservations == 0 && cancellations == 0 && fnbOrders == 0
+                    && items.isEmpty();
+        }
+    }
+
+    // 예약 1건이 집계에 더한 값 (예약 객체가 나중에 바뀌어도 정확히 빼기 위해 기록)
+    private record ReservationShare(LocalDate day, double price, boolean cancelled) {}
+
+    private static final RevenueLedger instance = new RevenueLedger();
+
+    private final Map<LocalDate, Bucket> daily = new HashMap<>();
+    private final Map<LocalDate, Bucket> weekly = new HashMap<>();   // 키: 그 주의 월요일
+    private final Map<YearMonth, Bucket> monthly = new HashMap<>();
+    private final Map<String, ReservationShare> reservationShares = new HashMap<>();
+    private long undatedFnbRevenue;
+    private int undatedFnbOrders;
+
+    private RevenueLedger() {}
+
+    public static RevenueLedger getInstance() {
+        return instance;
+    }
+
+    // =========================================================================
+    //                        Repository 에서 호출 (갱신)
+    // =========================================================================
+
+    /** 예약이 저장/변경될 때 (같은 ID 의 이전 값은 자동으로 빠짐) */
+    synchronized void putReservation(ClientReservation reservation) {
+        removeReservation(reservation.getReservationId());
+        LocalDate day = RoomCalendar.parseDate(reservation.getCheckInDate());
+        if (day == null) return; // 날짜가 잘못된 예약은 집계하지 않음
+        ReservationShare share = new ReservationShare(day, reservation.getTotalPrice(), RoomCalendar.isCancelled(reservation));
+        reservationShares.put(reservation.getReservationId(), share);
+        applyReservation(share, 1);
+    }
+
+    /** 예약이 삭제될 때 */
+    synchronized void removeReservation(String reservationId) {
+        ReservationShare previous = reservationShares.remove(reservationId);
+        if (previous != null) {
+            applyReservation(previous, -1);
+        }
+    }
+
+    /** 주문이 추가될 때 (sign 이 -1 이면 같은 주문을 되돌림) */
+    synchronized void addOrder(FoodOrder order, int sign) {
+        long price = order.getTotalPrice();
+        LocalDate day = RoomCalendar.parseDate(order.getOrderDate());
+        if (day == null) {
+            undatedFnbRevenue += sign * price;
+            undatedFnbOrders += sign;
+            return;
+        }
+        String item = order.getFoodName() == null ? "(알 수 없음)" : order.getFoodName();
+        for (Bucket bucket : bucketsOf(day)) {
+            bucket.fnbRevenue += sign * price;
+            bucket.fnbOrders += sign;
+            bucket.addItem(item, (long) sign * order.getCount(), sign * price);
+        }
+        dropIfEmpty(day);
+    }
+
+    private void applyReservation(ReservationShare share, int sign) {
+        for (Bucket bucket : bucketsOf(share.day())) {
+            if (share.cancelled()) {
+                bucket.cancellations += sign;
+            } else {
+                bucket.reservations += sign;
+                bucket.roomRevenue += sign * share.price();
+            }
+        }
+        dropIfEmpty(share.day());
+    }
+
+    // 그 날짜가 속한 일/주/월 집계 칸
+    private Bucket[] bucketsOf(LocalDate day) {
+        return new Bucket[] {
+                daily.computeIfAbsent(day, k -> new Bucket()),
+                weekly.computeIfAbsent(weekStart(day), k -> new Bucket()),
+                monthly.computeIfAbsent(YearMonth.from(day), k -> new Bucket())
+        };
+    }
+
+    private void dropIfEmpty(LocalDate day) {
+        if (daily.get(day).isEmpty()) daily.remove(day);
+        if (weekly.get(weekStart(day)).isEmpty()) weekly.remove(weekStart(day));
+        if (monthly.get(YearMonth.from(day)).isEmpty()) monthly.remove(YearMonth.from(day));
+    }
+
+    // =========================================================================
+    //                              보고서 조회
+    // =========================================================================
+
+    /** from ~ to (양 끝 포함) 의 합계 */
+    public synchronized Totals total(LocalDate from, LocalDate to) {
+        Accumulator sum = new Accumulator();
+        LocalDate day = from;
+        while (!day.isAfter(to)) {
+            YearMonth month = YearMonth.from(day);
+            if (day.getDayOfMonth() == 1 && !month.atEndOfMonth().isAfter(to)) {
+                sum.add(monthly.get(month)); // 한 달 전체가 기간 안이면 월 합계 사용
+                day = month.plusMonths(1).atDay(1);
+            } else {
+                sum.add(daily.get(day));
+                day = day.plusDays(1);
+            }
+        }
+        return sum.toTotals();
+    }
+
+    /** from ~ to 를 rollup 단위로 나눈 기간별 합계 (첫/마지막 주와 달은 기간에 맞게 잘림) */
+    public synchronized List<Period> breakdown(LocalDate from, LocalDate to, Rollup rollup) {
+        List<Period> periods = new ArrayList<>();
+        LocalDate start = from;
+        while (!start.isAfter(to)) {
+            LocalDate end = switch (rollup) {
+                case DAILY -> start;
+                case WEEKLY -> min(weekStart(start).plusDays(6), to);
+                case MONTHLY -> min(YearMonth.from(start).atEndOfMonth(), to);
+            };
+            periods.add(new Period(start, end, periodTotal(start, end, rollup)));
+            start = end.plusDays(1);
+        }
+        return periods;
+    }
+
+    // 기간이 주 전체와 같으면 주 합계를 바로 쓰고, 나머지는 total 과 같은 방식(월 합계 + 날짜별)으로 더함
+    private Totals periodTotal(LocalDate start, LocalDate end, Rollup rollup) {
+        if (rollup == Rollup.WEEKLY && start.equals(weekStart(start)) && end.equals(start.plusDays(6))) {
+            Accumulator sum = new Accumulator();
+            sum.add(weekly.get(start));
+            return sum.toTotals();
+        }
+        return total(start, end);
+    }
+
+    /** 전체 기간의 식음료 매출 (월 합계 + 날짜가 없는 예전 주문) */
+    public synchronized long totalFnbRevenue() {
+        long total = undatedFnbRevenue;
+        for (Bucket bucket : monthly.values()) {
+            total += bucket.fnbRevenue;
+        }
+        return total;
+    }
+
+    /** 날짜가 없어 기간 집계에서 빠진 예전 주문의 매출 */
+    public synchronized long undatedFnbRevenue() {
+        return undatedFnbRevenue;
+    }
+
+    /** 날짜가 없어 기간 집계에서 빠진 예전 주문 수 */
+    public synchronized int undatedFnbOrders() {
+        return undatedFnbOrders;
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.minusDays(day.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // 합산용 (빈 칸은 null)
+    private static final class Accumulator {
+        private final Bucket sum = new Bucket();
+
+        void add(Bucket bucket) {
+            if (bucket == null) return;
+            sum.roomRevenue += bucket.roomRevenue;
+            sum.fnbRevenue += bucket.fnbRevenue;
+            sum.reservations += bucket.reservations;
+            sum.cancellations += bucket.cancellations;
+            sum.fnbOrders += bucket.fnbOrders;
+            bucket.items.forEach((name, item) -> sum.addItem(name, item[0], item[1]));
+        }
+
+        Totals toTotals() {
+            Map<String, ItemSales> items = new LinkedHashMap<>();
+            sum.items.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                    .forEach(e -> items.put(e.getKey(), new ItemSales((int) e.getValue()[0], e.getValue()[1])));
+            return new Totals(sum.roomRevenue, sum.fnbRevenue, sum.reservations, sum.cancellations, sum.fnbOrders, items);
+        }
+    }
+}
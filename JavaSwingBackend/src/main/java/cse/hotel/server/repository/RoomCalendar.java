@@ -0,0 +1,118 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.common.model.ClientReservation;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 객실별 예약 기간 색인 (Room-night availability calendar)
+ *
+ * 취소되지 않은 예약을 객실 번호별로 [체크인, 체크아웃) 구간으로 보관합니다.
+ * 구간은 시작일 순으로 정렬되어 있고, 기간 중복 검사는 끝나는 날이 검사 기간에 닿을 수 있는
+ * 구간(가장 긴 구간의 박 수만큼 앞에서 시작한 구간)까지만 거꾸로 확인합니다.
+ * (예전 데이터처럼 서로 겹치는 예약이 있어도 빠짐없이 찾음)
+ *
+ * 날짜 변환(parseDate)과 취소 여부(isCancelled)는 보고서/내보내기도 같은 규칙을 쓰도록 공개합니다.
+ * 색인 자체는 ClientReservationRepository 가 자신의 잠금 안에서만 사용합니다.
+ */
+public final class RoomCalendar {
+
+    /** 객실 1개의 예약 구간 [start, end) */
+    private record Stay(LocalDate start, LocalDate end, String reservationId) {}
+
+    private static final Comparator<Stay> ORDER = Comparator
+            .comparing(Stay::start)
+            .thenComparing(Stay::reservationId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // 예전 클라이언트가 만든 "2025-12-1" 처럼 월/일이 한 자리인 날짜도 허용 (없는 날짜는 거부)
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("uuuu-M-d").withResolverStyle(ResolverStyle.STRICT);
+
+    // 객실 1개의 구간 목록 (longestNights: 등록된 적 있는 가장 긴 구간의 박 수, 검사 범위를 정하는 데만 쓰므로 줄이지 않음)
+    private static final class RoomStays {
+        final NavigableSet<Stay> stays = new TreeSet<>(ORDER);
+        long longestNights;
+    }
+
+    private final Map<Integer, RoomStays> staysByRoom = new HashMap<>();
+    // 예약 ID -> 등록된 구간 (취소/수정 시 제거용)
+    private final Map<String, Stay> stayByReservation = new HashMap<>();
+    private final Map<String, Integer> roomByReservation = new HashMap<>();
+
+    RoomCalendar() {}
+
+    /**
+     * "yyyy-MM-dd" 문자열을 날짜로 변환합니다. (월/일은 한 자리도 허용)
+     * @return 형식이 맞지 않거나 없는 날짜면 null
+     */
+    public static LocalDate parseDate(String date) {
+        if (date == null) return null;
+        try {
+            return LocalDate.parse(date.trim(), DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** 예약 기간 [checkIn, checkOut) (당일 체크아웃 등 잘못된 기간은 1박으로 간주) */
+    public static LocalDate endOf(LocalDate checkIn, LocalDate checkOut) {
+        return (checkOut == null || !checkOut.isAfter(checkIn)) ? checkIn.plusDays(1) : checkOut;
+    }
+
+    public static boolean isCancelled(ClientReservation reservation) {
+        String status = reservation.getStatus();
+        return "CANCELLED".equals(status) || "CANCELED".equals(status);
+    }
+
+    /** 예약을 색인에 반영합니다. (같은 ID 의 이전 구간은 제거, 취소된 예약은 제외) */
+    void put(ClientReservation reservation) {
+        remove(reservation.getReservationId());
+        if (isCancelled(reservation)) return;
+
+        LocalDate start = parseDate(reservation.getCheckInDate());
+        if (start == null) return; // 날짜를 알 수 없는 예전 데이터
+        Stay stay = new Stay(start, endOf(start, parseDate(reservation.getCheckOutDate())), reservation.getReservationId());
+
+        RoomStays room = staysByRoom.computeIfAbsent(reservation.getRoomNumber(), k -> new RoomStays());
+        room.stays.add(stay);
+        room.longestNights = Math.max(room.longestNights, stay.end().toEpochDay() - stay.start().toEpochDay());
+        stayByReservation.put(reservation.getReservationId(), stay);
+        roomByReservation.put(reservation.getReservationId(), reservation.getRoomNumber());
+    }
+
+    void remove(String reservationId) {
+        Stay stay = stayByReservation.remove(reservationId);
+        if (stay == null) return;
+        Integer room = roomByReservation.remove(reservationId);
+        RoomStays stays = staysByRoom.get(room);
+        if (stays != null) {
+            stays.stays.remove(stay);
+            if (stays.stays.isEmpty()) staysByRoom.remove(room);
+        }
+    }
+
+    /**
+     * 객실의 [from, to) 기간과 겹치는 예약 ID 를 찾습니다.
+     * to 이전에 시작하는 구간을 늦게 시작한 것부터 확인하며,
+     * 가장 긴 구간으로도 from 에 닿지 못할 만큼 일찍 시작한 구간에서 멈춥니다.
+     * @return 겹치는 예약이 없으면 null
+     */
+    String findConflict(int roomNumber, LocalDate from, LocalDate to) {
+        RoomStays room = staysByRoom.get(roomNumber);
+        if (room == null) return null;
+        LocalDate horizon = from.minusDays(room.longestNights);
+        for (Stay stay : room.stays.headSet(new Stay(to, to, null), false).descendingSet()) {
+            if (!stay.start().isAfter(horizon)) break; // 이 구간과 그 앞의 구간은 모두 from 전에 끝남
+            if (stay.end().isAfter(from)) {
+                return stay.reservationId();
+            }
+        }
+        return null;
+    }
+}
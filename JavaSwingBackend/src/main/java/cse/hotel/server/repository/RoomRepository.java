@@ -1,15 +1,25 @@
 package cse.hotel.server.repository;
 
-import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.io.*;
+import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.exception.VersionConflictException;
 import cse.hotel.common.model.Room;
+import cse.hotel.common.model.RoomStatus;
 
 /**
  * 객실 데이터를 관리하는 '자바 데이터베이스' (Repository)
  * SFR-402 (등록, 수정, 삭제) 기능 구현
+ *
+ * 객실 1개를 바꾸는 작업(상태 전이, 수정, 삭제)은 객실 번호별 잠금(stripe)을 먼저 잡으므로
+ * 같은 객실에 대한 작업만 순서대로 처리되고, 다른 객실의 작업은 서로 기다리지 않습니다.
+ * 테이블 자체는 instance 잠금으로 보호하며, 이 잠금은 조회/교체하는 짧은 순간에만 잡습니다.
+ * 잠금 순서: 객실 잠금 -> instance -> ChangeLog
+ *
+ * 객실은 변경될 때마다 version 이 1씩 올라가며, 관리자 수정(updateRoom)은
+ * 클라이언트가 읽었던 version 과 현재 version 이 같을 때만 반영됩니다. (낙관적 잠금)
  */
 public class RoomRepository {
     
@@ -17,13 +27,27 @@ public class RoomRepository {
     private static final RoomRepository instance = new RoomRepository();
     
     // 자바로 만드는 '객실 DB'. static으로 선언해서 모든 곳에서 공유
-    private static final Map<Integer, Room> roomDatabase = new ConcurrentHashMap<>();
+    // (객실 번호 int 로 바로 찾는 테이블 + 상태별 BitSet, 접근은 instance 잠금 안에서)
+    private static final RoomTable roomDatabase = new RoomTable();
     
     // 파일 경로 설정
     private static final String FILE_NAME = "data/room_data.ser";
     private static final File DATA_FILE;
+    // 변경 내역 로그 (data/room_data.log)
+    private static final ChangeLog<Integer, Room> changeLog;
+
+    // 상태 전이 기록 (보고서의 기간별 점유율용)
+    private static final RoomStatusLog statusLog = RoomStatusLog.getInstance();
+
+    // 객실 번호별 잠금 (객실 번호 % 개수)
+    private static final int LOCK_STRIPES = 64;
+    private static final ReentrantLock[] roomLocks = new ReentrantLock[LOCK_STRIPES];
     // --- Static 초기화 블록
     static {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            roomLocks[i] = new ReentrantLock();
+        }
+
         // 3. DATA_FILE 초기화
         DATA_FILE = new File(FILE_NAME);
         
@@ -35,6 +59,9 @@ public class RoomRepository {
         
         // loadData()는 Constructor에서 호출되도록 유지
         loadData(); 
+        // 마지막 스냅샷 이후의 변경 내역 적용
+        changeLog = new ChangeLog<>("객실", DATA_FILE, RoomRepository::saveData);
+        changeLog.replay(roomDatabase::put, roomDatabase::remove);
         
         // 만약 파일에 데이터가 없다면, 기본 예시 데이터를 추가합니다.
         if (roomDatabase.isEmpty()) {
@@ -54,6 +81,10 @@ public class RoomRepository {
              System.out.println("기본 예시 객실 데이터 추가됨.");
              saveData(); // 기본 데이터를 파일에 저장
         }
+        // 버전 필드가 없던 예전 데이터와 기본 데이터는 버전 1 부터 시작
+        for (Room room : roomDatabase.values()) {
+            if (room.getVersion() == 0) room.setVersion(1);
+        }
     }
 
     // 2. private 생성자로 외부 생성 차단
@@ -72,7 +103,9 @@ public class RoomRepository {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
                 @SuppressWarnings("unchecked")
                 Map<Integer, Room> loadedMap = (Map<Integer, Room>) ois.readObject();
-                roomDatabase.putAll(loadedMap);
+                for (Room room : loadedMap.values()) {
+                    roomDatabase.put(room.getRoomNumber(), room);
+                }
                 System.out.println("✅ 객실 데이터 로드 성공: " + roomDatabase.size() + "개 항목");
             } catch (FileNotFoundException e) {
                 // 이미 exists()로 체크했지만, 만약을 대비
@@ -85,69 +118,216 @@ public class RoomRepository {
         }
     }
     
-    //파일에 데이터 저장하기
+    //파일에 데이터 저장하기 (전체 스냅샷 + 변경 로그 비우기)
     private static void saveData() {
-        // DATA_FILE 객체를 사용
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(roomDatabase);
-            System.out.println("💾 객실 데이터 저장 완료.");
-        } catch (IOException e) {
-            System.err.println("❌ 데이터 저장 오류: " + e.getMessage());
+        // 스냅샷을 찍는 동안 다른 변경이 끼어들지 않도록 CRUD 메서드와 같은 잠금 사용
+        synchronized (instance) {
+            changeLog.compact(roomDatabase.toMap());
         }
     }
 
+    private static ReentrantLock lockOf(int roomNumber) {
+        return roomLocks[Math.floorMod(roomNumber, LOCK_STRIPES)];
+    }
+
     /**
      * C: 새 객실 등록 (SFR-402)
      */
     public Room addRoom(Room room) {
-        if (roomDatabase.containsKey(room.getRoomNumber())) {
-            // 이미 방 번호가 존재하면 등록 실패 (null 반환)
-            System.out.println("오류: " + room.getRoomNumber() + "번 객실은 이미 존재합니다.");
-            return null;
+        ReentrantLock roomLock = lockOf(room.getRoomNumber());
+        roomLock.lock();
+        try {
+            synchronized (this) {
+                if (roomDatabase.contains(room.getRoomNumber())) {
+                    // 이미 방 번호가 존재하면 등록 실패 (null 반환)
+                    System.out.println("오류: " + room.getRoomNumber() + "번 객실은 이미 존재합니다.");
+                    return null;
+                }
+                room.setVersion(1);
+                roomDatabase.put(room.getRoomNumber(), room);
+                changeLog.put(room.getRoomNumber(), room); // <- 저장 호출
+                return room;
+            }
+        } finally {
+            roomLock.unlock();
         }
-        roomDatabase.put(room.getRoomNumber(), room);
-        saveData(); // <- 저장 호출
-        return room;
     }
 
     /**
      * R: 객실 번호로 1개 조회 (SFR-401)
      */
-    public Room findRoomByNumber(int roomNumber) {
+    public synchronized Room findRoomByNumber(int roomNumber) {
         return roomDatabase.get(roomNumber);
     }
 
     /**
-     * R: 모든 객실 목록 조회 (SFR-403)
+     * R: 모든 객실 목록 조회 (SFR-403, 객실 번호 순)
      */
     public List<Room> findAllRooms() {
-        return new ArrayList<>(roomDatabase.values());
+        // 변경이 없었으면 이전에 만든 목록을 잠금 없이 그대로 반환
+        List<Room> snapshot = roomDatabase.snapshot();
+        if (snapshot != null) return snapshot;
+        synchronized (this) {
+            return roomDatabase.values();
+        }
+    }
+
+    /**
+     * 객실 데이터의 변경 횟수 (잠금 없음, 조회 응답 캐시가 최신인지 확인하는 용도)
+     */
+    public long revision() {
+        return roomDatabase.revision();
+    }
+
+    /**
+     * R: 특정 상태의 객실 목록 조회 (예: 청소 중인 객실)
+     */
+    public synchronized List<Room> findRoomsByStatus(RoomStatus status) {
+        return roomDatabase.withStatus(status);
+    }
+
+    /**
+     * R: 특정 상태의 객실 수 (보고서 점유율 계산용)
+     */
+    public synchronized int countByStatus(RoomStatus status) {
+        return roomDatabase.count(status);
+    }
+
+    /**
+     * R: 전체 객실 수
+     */
+    public synchronized int countRooms() {
+        return roomDatabase.size();
     }
 
     /**
      * U: 객실 정보 수정 (SFR-402)
+     * roomToUpdate 의 version 이 현재 version 과 다르면 반영하지 않습니다. (0 은 버전을 모르는 예전 클라이언트로 보고 검사 생략)
+     * 상태까지 바꾸는 경우에는 transition 과 같은 전이 규칙을 확인하고 RoomStatusLog 에도 기록합니다. (상태가 null 이면 현재 상태 유지)
+     * @return 수정된 객실 (새 version), 객실이 없으면 null
+     * @throws VersionConflictException 다른 사용자가 먼저 수정한 경우 (현재 객실 포함)
+     * @throws IllegalStateException 전이 규칙상 허용되지 않는 상태로 바꾸려는 경우
+     */
+    public Room updateRoom(Room roomToUpdate) throws VersionConflictException {
+        ReentrantLock roomLock = lockOf(roomToUpdate.getRoomNumber());
+        roomLock.lock();
+        try {
+            synchronized (this) {
+                if (!roomDatabase.contains(roomToUpdate.getRoomNumber())) {
+                    System.out.println("오류: " + roomToUpdate.getRoomNumber() + "번 객실이 존재하지 않아 수정할 수 없습니다.");
+                    return null;
+                }
+                Room current = roomDatabase.get(roomToUpdate.getRoomNumber());
+                if (roomToUpdate.getVersion() != 0 && roomToUpdate.getVersion() != current.getVersion()) {
+                    throw new VersionConflictException(roomToUpdate.getRoomNumber() + "호 정보를 다른 사용자가 먼저 수정했습니다. (현재 버전 "
+                            + current.getVersion() + ")", current);
+                }
+                RoomStatus status = current.getStatus();
+                RoomStatus next = roomToUpdate.getStatus();
+                if (next == null) {
+                    roomToUpdate.setStatus(status);
+                } else if (next != status && (status == null || !status.canTransitionTo(next))) {
+                    throw new IllegalStateException(roomToUpdate.getRoomNumber() + "호는 " + status + " 상태이므로 " + next + " 상태로 바꿀 수 없습니다.");
+                }
+                // 기존 정보를 새 정보(roomToUpdate)로 덮어쓰기
+                roomToUpdate.setVersion(current.getVersion() + 1);
+                roomDatabase.put(roomToUpdate.getRoomNumber(), roomToUpdate);
+                changeLog.put(roomToUpdate.getRoomNumber(), roomToUpdate); // <- 저장 호출
+                if (next != null && next != status) {
+                    statusLog.record(roomToUpdate.getRoomNumber(), status, next);
+                }
+                return roomToUpdate;
+            }
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    /**
+     * U: 객실 상태 전이 (체크인/체크아웃/청소 완료/예약/예약 취소)
+     * 같은 객실의 다른 작업과 겹치지 않도록 객실 잠금 안에서 확인과 변경을 한 번에 처리합니다.
+     * 전이가 불가능하면 아무것도 바꾸거나 기록하지 않고 바로 실패합니다.
+     * 공유 중인 Room 객체를 직접 고치지 않고, 상태만 바꾼 새 객체로 교체합니다.
+     * 바뀐 상태는 RoomStatusLog 에도 기록됩니다. (uow 가 있으면 commit 된 뒤에)
+     *
+     * @param expected 현재 상태가 이 값일 때만 변경 (null 이면 전이 규칙만 확인)
+     * @return 변경된 객실
+     * @throws IllegalStateException 현재 상태가 expected 와 다르거나 전이 규칙상 허용되지 않을 때
+     */
+    public Room transition(int roomNumber, RoomStatus expected, RoomStatus next) throws DataNotFoundException {
+        return transition(roomNumber, expected, next, null);
+    }
+
+    /**
+     * 다른 Repository 의 변경과 함께 기록할 상태 전이 (uow 가 null 이면 바로 기록)
+     * 객실 잠금은 uow 가 끝날 때까지 유지됩니다.
      */
-    public Room updateRoom(Room roomToUpdate) {
-        if (!roomDatabase.containsKey(roomToUpdate.getRoomNumber())) {
-            System.out.println("오류: " + roomToUpdate.getRoomNumber() + "번 객실이 존재하지 않아 수정할 수 없습니다.");
-            return null;
+    public Room transition(int roomNumber, RoomStatus expected, RoomStatus next, UnitOfWork uow) throws DataNotFoundException {
+        ReentrantLock roomLock = lockOf(roomNumber);
+        if (uow != null) {
+            uow.hold(roomLock);
+        }
+        roomLock.lock();
+        try {
+            Room current = findRoomByNumber(roomNumber);
+            if (current == null) {
+                throw new DataNotFoundException(roomNumber + "번 객실이 존재하지 않습니다.");
+            }
+            RoomStatus status = current.getStatus();
+            if ((expected != null && status != expected) || status == null || !status.canTransitionTo(next)) {
+                throw new IllegalStateException(roomNumber + "호는 " + status + " 상태이므로 " + next + " 상태로 바꿀 수 없습니다.");
+            }
+
+            Room changed = new Room(current.getRoomNumber(), current.getRoomType(), current.getPrice());
+            changed.setStatus(next);
+            changed.setVersion(current.getVersion() + 1);
+            synchronized (this) {
+                roomDatabase.put(roomNumber, changed);
+                if (uow == null) {
+                    changeLog.put(roomNumber, changed);
+                    statusLog.record(roomNumber, status, next);
+                } else {
+                    uow.put(changeLog, roomNumber, changed);
+                    uow.onCommit(() -> statusLog.record(roomNumber, status, next));
+                    uow.onRollback(() -> {
+                        synchronized (this) {
+                            roomDatabase.put(roomNumber, current);
+                        }
+                    });
+                }
+            }
+            return changed;
+        } finally {
+            roomLock.unlock();
         }
-        // 기존 정보를 새 정보(roomToUpdate)로 덮어쓰기
-        roomDatabase.put(roomToUpdate.getRoomNumber(), roomToUpdate);
-        saveData(); // <- 저장 호출
-        return roomToUpdate;
+    }
+
+    /**
+     * 객실 잠금을 잡고 uow 가 끝날 때까지 유지합니다.
+     * (예약처럼 다른 Repository 를 먼저 확인해야 하는 작업 동안 같은 객실의 변경을 막음)
+     */
+    public void lockRoom(int roomNumber, UnitOfWork uow) {
+        uow.hold(lockOf(roomNumber));
     }
 
     /**
      * D: 객실 삭제 (SFR-402)
      */
     public boolean deleteRoom(int roomNumber) {
-        if (!roomDatabase.containsKey(roomNumber)) {
-            System.out.println("오류: " + roomNumber + "번 객실이 존재하지 않아 삭제할 수 없습니다.");
-            return false;
+        ReentrantLock roomLock = lockOf(roomNumber);
+        roomLock.lock();
+        try {
+            synchronized (this) {
+                if (!roomDatabase.contains(roomNumber)) {
+                    System.out.println("오류: " + roomNumber + "번 객실이 존재하지 않아 삭제할 수 없습니다.");
+                    return false;
+                }
+                roomDatabase.remove(roomNumber);
+                changeLog.delete(roomNumber); // <- 저장 호출
+                return true;
+            }
+        } finally {
+            roomLock.unlock();
         }
-        roomDatabase.remove(roomNumber);
-        saveData(); // <- 저장 호출
-        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.common.model.RoomStatus;
+import cse.hotel.server.ServerMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 객실 상태 변경 기록과 객실 x 날짜 점유 표 (data/room_status.log)
+ *
+ * RoomRepository.transition 으로 바뀐 상태(체크인, 체크아웃, 예약, 예약 취소, 청소 완료)를
+ * 고정 길이 레코드 [long 시각(ms)][int 객실][byte 이전 상태][byte 다음 상태][short 표시] 로 덧붙이고,
+ * 같은 내용으로 날짜별 점유 표(날짜 -> 객실별 OCCUPIED/RESERVED 비트)를 바로 갱신합니다.
+ * 서버 시작 시에는 기록을 처음부터 다시 읽어 표를 만듭니다.
+ *
+ * 점유 기준은 예약 기간과 같은 박(night) 단위입니다.
+ * - 상태에 들어간 날은 항상 포함, 나간 날은 제외 (당일 입실 후 당일 퇴실은 1일)
+ * - 하루에 OCCUPIED 와 RESERVED 가 모두 있었으면 OCCUPIED 로만 셈 (객실-일은 한 상태로만 포함)
+ * - 아직 그 상태인 객실은 오늘까지 포함 (조회 시 계산)
+ * - 기록이 시작되기 전부터 그 상태였던 객실은 나간 날 하루만 포함
+ *
+ * 파일 기록은 PersistenceScheduler 의 기록 주기에 함께 수행하며, 이 객체의 잠금 안에서는
+ * PersistenceScheduler 에 기록을 알리는 것 외에 다른 잠금을 잡지 않습니다.
+ */
+public final class RoomStatusLog {
+
+    /** 기간 안의 객실-일 수 (occupied: OCCUPIED, reserved: RESERVED) */
+    public record RoomDays(long occupied, long reserved) {}
+
+    private static final String FILE_PATH = "data/room_status.log";
+    private static final int RECORD_BYTES = 16;
+    private static final short MARK = 0x5253; // "RS"
+    private static final RoomStatus[] STATUSES = RoomStatus.values();
+
+    // 날짜 1칸 (열 번호는 columns 참고)
+    private static final class Day {
+        final BitSet occupied = new BitSet();
+        final BitSet reserved = new BitSet();
+        int occupiedCount;
+        int reservedCount;
+
+        // 객실-일 1칸은 한 상태로만 셈 (같은 날 예약 후 입실처럼 둘 다 해당하면 OCCUPIED)
+        void mark(RoomStatus status, int column) {
+            if (status == RoomStatus.OCCUPIED && !occupied.get(column)) {
+                occupied.set(column);
+                occupiedCount++;
+                if (reserved.get(column)) {
+                    reserved.clear(column);
+                    reservedCount--;
+                }
+            } else if (status == RoomStatus.RESERVED && !reserved.get(column) && !occupied.get(column)) {
+                reserved.set(column);
+                reservedCount++;
+            }
+        }
+    }
+
+    // 아직 끝나지 않은 OCCUPIED/RESERVED 구간
+    private record Open(RoomStatus status, long since) {}
+
+    private static final RoomStatusLog instance = new RoomStatusLog();
+
+    private final File file = new File(FILE_PATH);
+    private final TreeMap<Long, Day> days = new TreeMap<>();        // epochDay -> 칸
+    private final Map<Integer, Integer> columns = new HashMap<>();  // 객실 번호 -> 열 번호
+    private final Map<Integer, Open> open = new HashMap<>();        // 객실 번호 -> 진행 중인 구간
+    private long events;
+
+    // 아직 파일에 쓰지 않은 레코드. 파일 기록은 flushLock 안에서만 (잠금 순서: flushLock -> this)
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final Object flushLock = new Object();
+    private FileChannel channel;
+    private boolean unforced; // 파일에는 썼지만 fsync 에 실패한 내용이 있음 (flushLock 으로 보호)
+
+    private RoomStatusLog() {
+        if (file.getParentFile() != null && !file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        replay();
+        PersistenceScheduler.getInstance().registerWriteBehind(this::writePending);
+        ServerMetrics.register("roomStatus", this::getStats);
+    }
+
+    public static RoomStatusLog getInstance() {
+        return instance;
+    }
+
+    // =========================================================================
+    //                         RoomRepository 에서 호출
+    // =========================================================================
+
+    /**
+     * 상태 전이 1건을 기록합니다. (객실 잠금 안에서 호출하므로 같은 객실의 기록 순서가 유지됨)
+     * 레코드는 다음 기록 주기에 파일에 쓰며, 발급한 LSN 을 알려 always 정책이면 요청 스레드가 그 반영까지 기다립니다.
+     */
+    synchronized void record(int roomNumber, RoomStatus from, RoomStatus to) {
+        long millis = System.currentTimeMillis();
+        apply(millis, roomNumber, from, to);
+        // LSN 발급과 버퍼 추가를 같은 잠금 안에서 해야, 그 LSN 까지 반영을 확정하는 주기가 이 레코드도 함께 씀
+        long lsn = ChangeLog.nextLsn();
+        try {
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeLong(millis);
+            out.writeInt(roomNumber);
+            out.writeByte(from.ordinal());
+            out.writeByte(to.ordinal());
+            out.writeShort(MARK);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // 메모리 버퍼이므로 발생하지 않음
+        }
+        PersistenceScheduler.getInstance().onAppend(lsn);
+    }
+
+    private void apply(long millis, int roomNumber, RoomStatus from, RoomStatus to) {
+        long day = dayOf(millis);
+        int column = columns.computeIfAbsent(roomNumber, k -> columns.size());
+        Open previous = open.remove(roomNumber);
+        if (previous != null) {
+            // 들어간 날은 열 때 표시했으므로 다음 날부터 나간 날 전날까지
+            for (long d = previous.since() + 1; d < day; d++) {
+                dayAt(d).mark(previous.status(), column);
+            }
+        } else if (from == RoomStatus.OCCUPIED || from == RoomStatus.RESERVED) {
+            dayAt(day).mark(from, column); // 기록 이전부터 이어진 상태
+        }
+        if (to == RoomStatus.OCCUPIED || to == RoomStatus.RESERVED) {
+            dayAt(day).mark(to, column);
+            open.put(roomNumber, new Open(to, day));
+        }
+        events++;
+    }
+
+    private Day dayAt(long epochDay) {
+        return days.computeIfAbsent(epochDay, k -> new Day());
+    }
+
+    private static long dayOf(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    // =========================================================================
+    //                              보고서 조회
+    // =========================================================================
+
+    /** from ~ to (양 끝 포함) 동안 OCCUPIED / RESERVED 였던 객실-일 수 */
+    public synchronized RoomDays total(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        long occupied = 0;
+        long reserved = 0;
+        for (Day day : days.subMap(first, true, last, true).values()) {
+            occupied += day.occupiedCount;
+            reserved += day.reservedCount;
+        }
+        // 진행 중인 구간은 들어간 다음 날부터 오늘까지
+        long today = LocalDate.now().toEpochDay();
+        for (Open stay : open.values()) {
+            long n = Math.min(last, today) - Math.max(first, stay.since() + 1) + 1;
+            if (n <= 0) continue;
+            if (stay.status() == RoomStatus.OCCUPIED) occupied += n;
+            else reserved += n;
+        }
+        return new RoomDays(occupied, reserved);
+    }
+
+    // =========================================================================
+    //                                 파일
+    // =========================================================================
+
+    // 서버 시작 시 기록을 다시 읽어 표를 만듦 (잘리거나 깨진 꼬리 레코드는 잘라냄)
+    private void replay() {
+        if (!file.exists() || file.length() == 0) return;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            long valid = 0;
+            while (buffer.remaining() >= RECORD_BYTES) {
+                long millis = buffer.getLong();
+                int room = buffer.getInt();
+                int from = buffer.get();
+                int to = buffer.get();
+                if (buffer.getShort() != MARK || from < 0 || from >= STATUSES.length || to < 0 || to >= STATUSES.length) {
+                    break;
+                }
+                apply(millis, room, STATUSES[from], STATUSES[to]);
+                valid += RECORD_BYTES;
+            }
+            if (valid < file.length()) {
+                System.out.println("⚠️ 객실 상태 기록의 손상된 꼬리를 잘라냅니다. (" + (file.length() - valid) + " bytes)");
+                try (FileChannel truncate = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    truncate.truncate(valid);
+                }
+            }
+            System.out.println("✅ 객실 상태 기록 로드: " + events + "건, " + days.size() + "일");
+        } catch (IOException e) {
+            System.err.println("❌ 객실 상태 기록 로드 오류: " + e.getMessage());
+        }
+    }
+
+    // 기록 주기마다 호출 (쌓인 레코드를 파일 끝에 쓰고, none 이 아니면 fsync. 실패하면 다음 주기에 다시 시도)
+    private void writePending() throws IOException {
+        synchronized (flushLock) {
+            byte[] bytes;
+            synchronized (this) {
+                if (pending.size() == 0 && !unforced) return;
+                bytes = pending.toByteArray();
+                pending = new ByteArrayOutputStream();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                if (channel == null) {
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (PersistenceScheduler.getInstance().getDurability() != PersistenceScheduler.Durability.NONE) {
+                    unforced = true;
+                    channel.force(false);
+                    unforced = false;
+                }
+            } catch (IOException e) {
+                // 쓰지 못한 부분은 다음 주기에 다시 시도
+                synchronized (this) {
+                    ByteArrayOutputStream retry = new ByteArrayOutputStream();
+                    retry.write(bytes, bytes.length - buffer.remaining(), buffer.remaining());
+                    retry.writeBytes(pending.toByteArray());
+                    pending = retry;
+                }
+                throw new IOException("객실 상태 기록: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("roomStatus.events", events);
+        stats.put("roomStatus.days", days.size());
+        stats.put("roomStatus.openStays", open.size());
+        stats.put("roomStatus.pendingBytes", pending.size());
+        return stats;
+    }
+}
@@ -0,0 +1,236 @@
+package cse.hotel.server.repository;
+
+import cse.hotel.common.model.Room;
+import cse.hotel.common.model.RoomStatus;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 객실 번호(int) -> Room 테이블 (Open addressing, 선형 탐사)
+ *
+ * 객실 번호를 박싱하지 않고 int 배열에서 바로 찾으며,
+ * 상태(RoomStatus)별로 BitSet 을 하나씩 두어 "청소 중인 객실 목록" 같은 조회를
+ * 설정된 비트 수만큼만 확인하고, 상태별 객실 수는 O(1) 로 반환합니다.
+ * 비트 위치는 테이블 슬롯 번호이며, 삭제 시 항목이 옮겨지면 비트도 함께 옮깁니다.
+ *
+ * 전체 목록은 수정할 수 없는 스냅샷으로 만들어 두었다가 변경이 생길 때만 버리므로,
+ * 변경이 없는 동안에는 snapshot() 으로 잠금 없이 같은 목록을 꺼낼 수 있습니다.
+ *
+ * snapshot() 외에는 동기화하지 않으므로 RoomRepository 가 잠금 안에서만 사용합니다.
+ */
+class RoomTable {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final RoomStatus[] STATUSES = RoomStatus.values();
+    private static final byte NO_STATUS = -1;
+
+    private int[] keys;
+    private Room[] values;
+    // 슬롯별로 BitSet 에 기록된 상태 (Room 객체가 직접 수정된 뒤 updateRoom 될 때 이전 상태를 알기 위함)
+    private byte[] indexedStatus;
+    private final BitSet[] roomsByStatus = new BitSet[STATUSES.length];
+    private final int[] countByStatus = new int[STATUSES.length];
+    private int size;
+    private int mask;
+    // 객실 번호 순 전체 목록 (불변, 변경 시 null)
+    private volatile List<Room> snapshot;
+    // 변경될 때마다 1씩 증가 (응답 캐시 무효화용)
+    private volatile long revision;
+
+    RoomTable() {
+        allocate(32);
+        for (int i = 0; i < STATUSES.length; i++) {
+            roomsByStatus[i] = new BitSet();
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Room[capacity];
+        indexedStatus = new byte[capacity];
+        Arrays.fill(indexedStatus, NO_STATUS);
+        mask = capacity - 1;
+    }
+
+    private int slotOf(int roomNumber) {
+        int h = roomNumber * 0x9E3779B9; // 연속된 객실 번호가 고르게 퍼지도록
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // 객실 번호가 있는 슬롯, 없으면 -1
+    private int find(int roomNumber) {
+        int slot = slotOf(roomNumber);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == roomNumber) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // =========================================================================
+    //                                 조회
+    // =========================================================================
+
+    Room get(int roomNumber) {
+        int slot = find(roomNumber);
+        return slot < 0 ? null : values[slot];
+    }
+
+    boolean contains(int roomNumber) {
+        return find(roomNumber) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** 모든 객실 (객실 번호 순, 수정할 수 없는 목록) */
+    List<Room> values() {
+        List<Room> current = snapshot;
+        if (current == null) {
+            List<Room> list = new ArrayList<>(size);
+            for (Room room : values) {
+                if (room != null) list.add(room);
+            }
+            list.sort((a, b) -> Integer.compare(a.getRoomNumber(), b.getRoomNumber()));
+            snapshot = current = List.copyOf(list);
+        }
+        return current;
+    }
+
+    /** 변경 횟수 (잠금 없이 호출 가능, 값이 같으면 그 사이 변경이 없었음) */
+    long revision() {
+        return revision;
+    }
+
+    /** 마지막으로 만든 전체 목록 (잠금 없이 호출 가능, 그 뒤 변경이 있었으면 null) */
+    List<Room> snapshot() {
+        return snapshot;
+    }
+
+    /** 해당 상태의 객실 수 (O(1)) */
+    int count(RoomStatus status) {
+        return countByStatus[status.ordinal()];
+    }
+
+    /** 해당 상태의 객실 목록 (객실 번호 순) */
+    List<Room> withStatus(RoomStatus status) {
+        BitSet bits = roomsByStatus[status.ordinal()];
+        List<Room> list = new ArrayList<>(countByStatus[status.ordinal()]);
+        for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+            list.add(values[slot]);
+        }
+        list.sort((a, b) -> Integer.compare(a.getRoomNumber(), b.getRoomNumber()));
+        return list;
+    }
+
+    /** 스냅샷 저장용 (기존 파일 형식 Map<Integer, Room>) */
+    HashMap<Integer, Room> toMap() {
+        HashMap<Integer, Room> map = new HashMap<>(size * 2);
+        for (Room room : values) {
+            if (room != null) map.put(room.getRoomNumber(), room);
+        }
+        return map;
+    }
+
+    // =========================================================================
+    //                                 변경
+    // =========================================================================
+
+    /** 객실을 저장하고 상태 비트를 갱신합니다. (같은 번호가 있으면 교체) */
+    void put(int roomNumber, Room room) {
+        int slot = find(roomNumber);
+        if (slot < 0) {
+            if ((size + 1) * 4 > keys.length * 3) { // 적재율 0.75 초과 시 확장
+                resize(keys.length * 2);
+            }
+            slot = slotOf(roomNumber);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = roomNumber;
+            size++;
+        }
+        values[slot] = room;
+        indexStatus(slot, room.getStatus());
+        snapshot = null;
+        revision++;
+    }
+
+    /** 객실을 삭제합니다. (뒤따르는 항목을 당겨 와 빈칸 없이 유지) */
+    Room remove(int roomNumber) {
+        int slot = find(roomNumber);
+        if (slot < 0) return null;
+        Room removed = values[slot];
+        snapshot = null;
+        revision++;
+        indexStatus(slot, null);
+        keys[slot] = EMPTY;
+        values[slot] = null;
+        size--;
+
+        // 선형 탐사 경로가 끊기지 않도록 뒤쪽 항목을 빈 슬롯으로 이동
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slotOf(keys[next]);
+            // home 이 (hole, next] 구간 밖이면 hole 로 옮길 수 있음
+            boolean movable = (next > hole) ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                RoomStatus status = statusAt(next);
+                indexStatus(next, null);
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                keys[next] = EMPTY;
+                values[next] = null;
+                indexStatus(hole, status);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return removed;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Room[] oldValues = values;
+        for (BitSet bits : roomsByStatus) bits.clear();
+        Arrays.fill(countByStatus, 0);
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private RoomStatus statusAt(int slot) {
+        byte ordinal = indexedStatus[slot];
+        return ordinal == NO_STATUS ? null : STATUSES[ordinal];
+    }
+
+    // 슬롯의 상태 비트를 status 로 옮깁니다. (null 이면 비트만 제거)
+    private void indexStatus(int slot, RoomStatus status) {
+        byte previous = indexedStatus[slot];
+        byte next = status == null ? NO_STATUS : (byte) status.ordinal();
+        if (previous == next) return;
+        if (previous != NO_STATUS) {
+            roomsByStatus[previous].clear(slot);
+            countByStatus[previous]--;
+        }
+        if (next != NO_STATUS) {
+            roomsByStatus[next].set(slot);
+            countByStatus[next]++;
+        }
+        indexedStatus[slot] = next;
+    }
+}
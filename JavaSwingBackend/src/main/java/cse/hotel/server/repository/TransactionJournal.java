@@ -0,0 +1,101 @@
+package cse.hotel.server.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트랜잭션 저널 (data/tx_journal.log)
+ *
+ * UnitOfWork 가 여러 Repository 의 변경을 레코드 1개로 묶어 기록하는 공용 로그입니다.
+ * 레코드 1개는 한 번에 기록되고 CRC 로 검사되므로, 서버가 꺼져도 트랜잭션의 변경은 전부 남거나 전부 사라집니다.
+ * 안의 변경들은 원래 로그의 레코드 형식 그대로이며 각자의 LSN 을 가지고 있어,
+ * 서버 시작 시 각 ChangeLog 가 자기 로그와 LSN 순으로 합쳐서 적용합니다.
+ *
+ * 저널이 길어지면 참여한 Repository 를 모두 스냅샷 저장(체크포인트)한 뒤 저널을 비웁니다.
+ */
+final class TransactionJournal {
+
+    /** 다른 로그(log 는 ChangeLog.id)에 속하는 레코드 1건 */
+    record Entry(String log, byte[] payload) implements Serializable {}
+
+    private static final String FILE_PATH = "data/tx_journal.ser";
+
+    private static final TransactionJournal instance = new TransactionJournal();
+
+    // 시작 시 읽은 저널 레코드 (로그 이름 -> LSN 순 레코드), 각 로그의 replay 에서 한 번 꺼내 감
+    private final Map<String, List<byte[]>> recovered = new HashMap<>();
+    // 저널에 레코드를 남긴 적이 있는 로그 (저널을 비우기 전에 체크포인트가 필요함)
+    private final Set<ChangeLog<?, ?>> participants = ConcurrentHashMap.newKeySet();
+    private final ChangeLog<Long, ArrayList<Entry>> log;
+
+    private TransactionJournal() {
+        File file = new File(FILE_PATH);
+        if (file.getParentFile() != null && !file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        log = new ChangeLog<>("트랜잭션", file, this::checkpoint, false);
+        log.replay((txId, entries) -> {
+            for (Entry entry : entries) {
+                recovered.computeIfAbsent(entry.log(), k -> new ArrayList<>()).add(entry.payload());
+            }
+        }, txId -> {});
+        // 커밋 순서와 LSN 순서는 다를 수 있으므로 로그별로 다시 정렬
+        for (List<byte[]> records : recovered.values()) {
+            records.sort(Comparator.comparingLong(ChangeLog::lsnOf));
+        }
+    }
+
+    static TransactionJournal getInstance() {
+        return instance;
+    }
+
+    /** 시작 시 읽은 저널 레코드 중 해당 로그의 것 (LSN 순) */
+    synchronized List<byte[]> recordsFor(ChangeLog<?, ?> target) {
+        List<byte[]> records = recovered.remove(target.id());
+        if (records == null) return List.of();
+        participants.add(target);
+        return records;
+    }
+
+    /** 트랜잭션의 변경을 레코드 1개로 기록합니다. (참여 Repository 의 잠금을 잡은 채로 호출) */
+    void commit(ArrayList<Entry> entries, Set<ChangeLog<?, ?>> logs) {
+        participants.addAll(logs);
+        log.put(ChangeLog.lsnOf(entries.get(0).payload()), entries);
+    }
+
+    /**
+     * 지금까지 커밋된 트랜잭션을 파일에 쓰고 디스크에 반영합니다.
+     * 참여 로그가 스냅샷을 저장하고 자기 로그를 비우기 전에 호출해야,
+     * 스냅샷에는 들어갔지만 저널에는 없는(일부만 남은) 트랜잭션이 생기지 않습니다.
+     */
+    void flush() throws IOException {
+        log.writePending();
+        log.sync();
+    }
+
+    // 저널 정리: 참여 로그를 모두 스냅샷 저장해 저널의 레코드가 필요 없게 만든 뒤 비움
+    // 하나라도 스냅샷 저장에 실패하면 그 로그의 트랜잭션 변경은 저널에만 있으므로 저널을 그대로 둠
+    // (PersistenceScheduler 가 트랜잭션을 막은 상태에서 호출)
+    private void checkpoint() {
+        boolean allSaved = true;
+        for (ChangeLog<?, ?> participant : participants) {
+            if (!participant.runCompactor()) {
+                allSaved = false;
+            }
+        }
+        if (!allSaved) {
+            System.err.println("❌ 참여 로그의 스냅샷 저장에 실패해 트랜잭션 저널을 비우지 않습니다.");
+            log.compactionSkipped();
+            return;
+        }
+        log.compact(new ArrayList<Entry>());
+    }
+}
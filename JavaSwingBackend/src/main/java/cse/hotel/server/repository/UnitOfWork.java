@@ -0,0 +1,115 @@
+package cse.hotel.server.repository;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 여러 Repository 에 걸친 변경을 하나로 묶는 작업 단위 (Unit of Work)
+ *
+ * Repository 메서드에 UnitOfWork 를 넘기면 메모리는 바로 바꾸되, 변경 로그에는 쓰지 않고 여기에 모아 둡니다.
+ * commit() 하면 모아 둔 변경이 트랜잭션 저널에 레코드 1개로 기록되고,
+ * commit 없이 close() 되면 (중간에 실패한 경우) 메모리 변경을 역순으로 되돌립니다.
+ * 작업 중에 잡은 객실 잠금 등은 close() 때 풀리며, 그동안 스냅샷 저장은 잠시 멈춥니다.
+ *
+ * <pre>
+ * try (UnitOfWork uow = new UnitOfWork()) {
+ *     ... repository.xxx(..., uow);
+ *     uow.commit();
+ * }
+ * </pre>
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private final PersistenceScheduler scheduler = PersistenceScheduler.getInstance();
+    private final ArrayList<TransactionJournal.Entry> entries = new ArrayList<>();
+    private final Set<ChangeLog<?, ?>> logs = new HashSet<>();
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+    private final ArrayList<Runnable> afterCommit = new ArrayList<>();
+    private final Deque<Lock> held = new ArrayDeque<>();
+    private boolean finished;
+
+    public UnitOfWork() {
+        scheduler.beginTransaction();
+    }
+
+    // =========================================================================
+    //                           Repository 에서 호출
+    // =========================================================================
+
+    /** 잠금을 잡고 작업이 끝날 때(close)까지 유지합니다. */
+    void hold(Lock lock) {
+        lock.lock();
+        held.push(lock);
+    }
+
+    <K extends Serializable, V extends Serializable> void put(ChangeLog<K, V> log, K key, V value) {
+        try {
+            entries.add(new TransactionJournal.Entry(log.id(), log.encodePut(key, value)));
+            logs.add(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    <K extends Serializable, V extends Serializable> void delete(ChangeLog<K, V> log, K key) {
+        try {
+            entries.add(new TransactionJournal.Entry(log.id(), log.encodeDelete(key)));
+            logs.add(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** commit 이 끝난 뒤 실행할 작업 (등록 순서대로, 잠금을 풀기 전에 실행) */
+    void onCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    /** commit 전에 실패했을 때 메모리 변경을 되돌릴 작업 (등록의 역순으로 실행) */
+    void onRollback(Runnable action) {
+        undo.push(action);
+    }
+
+    // =========================================================================
+    //                              서비스에서 호출
+    // =========================================================================
+
+    /** 모아 둔 변경을 트랜잭션 저널에 한 번에 기록합니다. */
+    public void commit() {
+        if (finished) {
+            throw new IllegalStateException("이미 끝난 작업입니다.");
+        }
+        if (!entries.isEmpty()) {
+            TransactionJournal.getInstance().commit(entries, logs);
+        }
+        finished = true;
+        for (Runnable action : afterCommit) {
+            action.run();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!finished) {
+                finished = true;
+                // 아직 어디에도 기록되지 않은 변경이므로 메모리만 되돌림
+                while (!undo.isEmpty()) {
+                    undo.pop().run();
+                }
+            }
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+            scheduler.endTransaction();
+        }
+    }
+}
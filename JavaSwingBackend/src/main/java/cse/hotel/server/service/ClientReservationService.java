@@ -2,8 +2,11 @@ package cse.hotel.server.service;
 
 import cse.hotel.common.exception.DataNotFoundException;
 import cse.hotel.server.repository.ClientReservationRepository;
+import cse.hotel.server.repository.RoomRepository;
+import cse.hotel.server.repository.UnitOfWork;
 import cse.hotel.common.model.ClientReservation;
-import java.util.ArrayList;
+import cse.hotel.common.model.Room;
+import cse.hotel.common.model.RoomStatus;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +14,7 @@ public class ClientReservationService {
 
     private static final ClientReservationService instance = new ClientReservationService();
     private final ClientReservationRepository repository = ClientReservationRepository.getInstance();
+    private final RoomRepository roomRepository = RoomRepository.getInstance();
 
     private ClientReservationService() {}
 
@@ -18,8 +22,9 @@ public class ClientReservationService {
         return instance;
     }
 
-    // 신규 예약 생성
-    public ClientReservation makeReservation(String customerId, int roomNumber, String checkIn, String checkOut, double price) {
+    // 신규 예약 생성 + 객실 상태 '예약됨' 변경 (두 변경을 한 트랜잭션으로 기록)
+    public ClientReservation makeReservation(String customerId, int roomNumber, String checkIn, String checkOut, double price)
+            throws DataNotFoundException {
         // ID 자동 생성 (RES-XXXXXXX)
         String reservationId = "RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
 
@@ -33,38 +38,58 @@ public class ClientReservationService {
                 "CONFIRMED"
         );
 
-        repository.add(newRes);
+        try (UnitOfWork uow = new UnitOfWork()) {
+            // 같은 객실의 예약/상태 변경만 순서대로 처리 (다른 객실의 예약은 기다리지 않음)
+            roomRepository.lockRoom(roomNumber, uow);
+            Room room = roomRepository.findRoomByNumber(roomNumber);
+            if (room == null) throw new DataNotFoundException(roomNumber + "번 객실이 존재하지 않습니다.");
+
+            // 같은 객실의 기간이 겹치면 IllegalStateException
+            repository.addIfAvailable(newRes, uow);
+
+            // 예약 기간은 앞으로의 날짜일 수 있으므로, 지금 비어 있는 객실만 '예약됨'으로 표시
+            if (room.getStatus() == RoomStatus.AVAILABLE) {
+                roomRepository.transition(roomNumber, RoomStatus.AVAILABLE, RoomStatus.RESERVED, uow);
+            }
+            uow.commit();
+        }
         System.out.println("✅ 예약 생성 완료: " + reservationId);
         return newRes;
     }
 
-    // 고객 ID로 예약 목록 조회
+    // 고객 ID로 예약 목록 조회 (고객 색인 사용)
     public List<ClientReservation> getReservationsByCustomerId(String customerId) {
-        List<ClientReservation> all = repository.findAll();
-        List<ClientReservation> result = new ArrayList<>();
-        
-        for (ClientReservation r : all) {
-            if (r.getCustomerId().equals(customerId)) {
-                result.add(r);
-            }
-        }
-        return result;
+        return repository.findByCustomerId(customerId);
     }
 
-    // 예약 취소 (상태 변경 후 방 번호 반환)
+    // 예약 취소 + 객실 '빈 객실' 복구 (두 변경을 한 트랜잭션으로 기록, 방 번호 반환)
     public int cancelReservation(String reservationId) throws DataNotFoundException, IllegalStateException {
         ClientReservation res = repository.findById(reservationId);
-        
         if (res == null) throw new DataNotFoundException("예약을 찾을 수 없습니다.");
-        if ("CANCELLED".equals(res.getStatus())) throw new IllegalStateException("이미 취소된 예약입니다.");
+        int roomNumber = res.getRoomNumber();
+
+        try (UnitOfWork uow = new UnitOfWork()) {
+            roomRepository.lockRoom(roomNumber, uow);
+            // 이미 취소된 예약이면 IllegalStateException
+            repository.cancel(reservationId, uow);
+
+            // '예약됨' 상태인 객실만 복구 (그 사이 입실한 객실 등은 그대로 둠)
+            Room room = roomRepository.findRoomByNumber(roomNumber);
+            if (room != null && room.getStatus() == RoomStatus.RESERVED) {
+                roomRepository.transition(roomNumber, RoomStatus.RESERVED, RoomStatus.AVAILABLE, uow);
+            }
+            uow.commit();
+        }
 
-        res.setStatus("CANCELLED");
-        repository.add(res); // 업데이트
-        
         System.out.println("🚫 예약 취소됨: " + reservationId);
-        return res.getRoomNumber(); 
+        return roomNumber;
     }
     
+    // 후보 객실 중 해당 기간에 예약이 없는 객실만 반환
+    public List<Room> filterAvailableRooms(List<Room> candidates, String checkIn, String checkOut) {
+        return repository.filterAvailable(candidates, checkIn, checkOut);
+    }
+
     //[관리자용]모든 예약 목록 조회
     public List<ClientReservation> getAllReservations() {
         return repository.findAll();
@@ -2,6 +2,7 @@ package cse.hotel.server.service;
 
 import cse.hotel.common.exception.DuplicateIdException;
 import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.exception.VersionConflictException;
 import cse.hotel.server.repository.CustomerRepository;
 import cse.hotel.common.model.Customer;
 import java.util.List;
@@ -24,14 +25,6 @@ public class CustomerService {
         return instance;
     }
 
-    // --- Helper Method: 전화번호 중복 확인 ---
-    private boolean isPhoneNumberDuplicated(String phoneNumber, String currentId) {
-        return repository.findAllCustomers().stream()
-                // 현재 수정하려는 고객(currentId) 자신을 제외하고 전화번호 중복을 검사
-                .filter(c -> !c.getCustomerId().equals(currentId))
-                .anyMatch(c -> c.getPhoneNumber().equals(phoneNumber));
-    }
-    
     // --- CRUD 메서드 (ClientHandler 호출용) ---
 
     // R: 전체 고객 목록 조회
@@ -66,7 +59,8 @@ public Customer addCustomer(Customer newCustomer) throws DuplicateIdException, I
 }
 
     // U: 고객 정보 수정 (UPDATE_CUSTOMER 명령)
-    public void updateCustomer(Customer updatedCustomer) throws DataNotFoundException, DuplicateIdException, IllegalArgumentException {
+    public Customer updateCustomer(Customer updatedCustomer)
+            throws DataNotFoundException, DuplicateIdException, IllegalArgumentException, VersionConflictException {
         // 1. 필수 필드 검사
         if (updatedCustomer.getName().isEmpty() || updatedCustomer.getPhoneNumber().isEmpty()) {
             throw new IllegalArgumentException("고객 이름과 전화번호는 필수 입력 사항입니다.");
@@ -77,13 +71,13 @@ public Customer addCustomer(Customer newCustomer) throws DuplicateIdException, I
             throw new DataNotFoundException("오류: 수정하려는 고객 ID를 찾을 수 없습니다.");
         }
         
-        // 3. 전화번호 중복 검사 (수정하려는 ID 자신을 제외하고 중복 검사)
-        if (isPhoneNumberDuplicated(updatedCustomer.getPhoneNumber(), updatedCustomer.getCustomerId())) {
-             throw new DuplicateIdException("오류: 입력된 전화번호는 이미 다른 고객에게 등록되어 있습니다.");
+        // 3. Repository에 수정 요청 (그 사이 다른 사용자가 수정했으면 VersionConflictException,
+        //    다른 고객이 같은 전화번호를 쓰고 있으면 DuplicateIdException. 중복 검사와 수정을 같은 잠금 안에서 처리)
+        Customer updated = repository.updateCustomer(updatedCustomer);
+        if (updated == null) {
+            throw new DataNotFoundException("오류: 수정하려는 고객 ID를 찾을 수 없습니다.");
         }
-        
-        // 4. Repository에 수정 요청
-        repository.updateCustomer(updatedCustomer);
+        return updated;
     }
 
     // D: 고객 삭제 (DELETE_CUSTOMER 명령)
@@ -0,0 +1,220 @@
+package cse.hotel.server.service;
+
+import cse.hotel.common.model.ClientReservation;
+import cse.hotel.common.model.FoodOrder;
+import cse.hotel.common.packet.ExportChunk;
+import cse.hotel.server.ServerConfig;
+import cse.hotel.server.ServerMetrics;
+import cse.hotel.server.repository.ClientReservationRepository;
+import cse.hotel.server.repository.FoodOrderRepository;
+import cse.hotel.server.repository.RoomCalendar;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 예약/주문 내역 CSV 내보내기 (EXPORT, 회계 월말 정산용)
+ *
+ * params
+ * - type      : "RESERVATIONS" 또는 "ORDERS" (필수)
+ * - startDate, endDate : "yyyy-MM-dd" (선택, 월/일은 한 자리도 허용, 예약은 체크인 날짜, 주문은 주문 날짜 기준, 양 끝 포함)
+ * - columns   : 내보낼 열 이름 목록 (List 또는 쉼표로 구분한 문자열, 선택, 기본은 전체)
+ *
+ * Repository 의 불변 스냅샷을 앞에서부터 읽으며 --export-chunk-rows 줄마다 ExportChunk 1개를 만들어
+ * 바로 연결로 보내므로, 내역이 아무리 길어도 한 번에 메모리에 올리는 것은 조각 1개뿐입니다.
+ */
+public class ExportService {
+
+    /** 만든 조각을 보내는 곳 (연결에 쓰기, 보내기가 끝나야 다음 조각을 만듦) */
+    @FunctionalInterface
+    public interface ChunkSink {
+        void send(ExportChunk chunk) throws IOException;
+    }
+
+    // 열 이름 -> 값
+    private static final Map<String, Function<ClientReservation, Object>> RESERVATION_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<FoodOrder, Object>> ORDER_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        RESERVATION_COLUMNS.put("reservationId", ClientReservation::getReservationId);
+        RESERVATION_COLUMNS.put("customerId", ClientReservation::getCustomerId);
+        RESERVATION_COLUMNS.put("roomNumber", ClientReservation::getRoomNumber);
+        RESERVATION_COLUMNS.put("checkInDate", ClientReservation::getCheckInDate);
+        RESERVATION_COLUMNS.put("checkOutDate", ClientReservation::getCheckOutDate);
+        RESERVATION_COLUMNS.put("totalPrice", r -> (long) r.getTotalPrice());
+        RESERVATION_COLUMNS.put("status", ClientReservation::getStatus);
+
+        ORDER_COLUMNS.put("orderId", FoodOrder::getOrderId);
+        ORDER_COLUMNS.put("orderTime", FoodOrder::getOrderTime);
+        ORDER_COLUMNS.put("customerId", FoodOrder::getCustomerId);
+        ORDER_COLUMNS.put("roomNumber", FoodOrder::getRoomNumber);
+        ORDER_COLUMNS.put("foodName", FoodOrder::getFoodName);
+        ORDER_COLUMNS.put("count", FoodOrder::getCount);
+        ORDER_COLUMNS.put("totalPrice", FoodOrder::getTotalPrice);
+    }
+
+    private static final ExportService instance = new ExportService();
+
+    private final ClientReservationRepository reservationRepository = ClientReservationRepository.getInstance();
+    private final FoodOrderRepository orderRepository = FoodOrderRepository.getInstance();
+    private final int chunkRows = Math.max(1, ServerConfig.exportChunkRows());
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder rowsExported = new LongAdder();
+    private final LongAdder chunksSent = new LongAdder();
+    // 기간 조건이 있는데 날짜를 알 수 없어 제외한 줄
+    private final LongAdder undatedRows = new LongAdder();
+
+    private ExportService() {
+        ServerMetrics.register("export", this::getStats);
+    }
+
+    public static ExportService getInstance() {
+        return instance;
+    }
+
+    /**
+     * 조건에 맞는 내역을 CSV 조각으로 나눠 sink 로 보냅니다. (내역이 없어도 머리글만 담은 마지막 조각 1개는 보냄)
+     * 잘못된 조건은 첫 조각을 보내기 전에 IllegalArgumentException 으로 거부됩니다.
+     * @return 내보낸 데이터 줄 수
+     */
+    public long export(Map<String, Object> params, ChunkSink sink) throws IOException {
+        if (params == null) {
+            throw new IllegalArgumentException("내보내기 조건(type)을 입력해 주세요.");
+        }
+        String type = params.get("type") instanceof String text ? text.trim().toUpperCase() : "";
+        LocalDate from = toDate(params.get("startDate"), "시작일");
+        LocalDate to = toDate(params.get("endDate"), "종료일");
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("시작일이 종료일보다 늦습니다. (" + from + " ~ " + to + ")");
+        }
+        Object columns = params.get("columns");
+
+        switch (type) {
+            case "RESERVATIONS":
+                return stream(reservationRepository.findAll(), ClientReservation::getCheckInDate, from, to,
+                        RESERVATION_COLUMNS, columns, sink);
+            case "ORDERS":
+                orderRepository.applyPending();
+                return stream(orderRepository.findAll(), FoodOrder::getOrderDate, from, to,
+                        ORDER_COLUMNS, columns, sink);
+            default:
+                throw new IllegalArgumentException("내보낼 종류(type)는 RESERVATIONS 또는 ORDERS 입니다: " + params.get("type"));
+        }
+    }
+
+    private <T> long stream(List<T> rows, Function<T, String> dateOf, LocalDate from, LocalDate to,
+                            Map<String, Function<T, Object>> available, Object requested, ChunkSink sink) throws IOException {
+        List<String> names = selectColumns(available, requested);
+        List<Function<T, Object>> columns = new ArrayList<>(names.size());
+        for (String name : names) {
+            columns.add(available.get(name));
+        }
+        exports.increment();
+
+        StringBuilder csv = new StringBuilder();
+        appendLine(csv, new ArrayList<>(names));
+        int sequence = 0;
+        int inChunk = 0;
+        long total = 0;
+        List<Object> values = new ArrayList<>(columns.size());
+        for (T row : rows) {
+            if ((from != null || to != null) && !inRange(dateOf.apply(row), from, to)) continue;
+            values.clear();
+            for (Function<T, Object> column : columns) {
+                values.add(column.apply(row));
+            }
+            appendLine(csv, values);
+            inChunk++;
+            total++;
+            if (inChunk == chunkRows) {
+                send(sink, new ExportChunk(sequence++, inChunk, false, csv.toString()));
+                csv.setLength(0);
+                inChunk = 0;
+            }
+        }
+        send(sink, new ExportChunk(sequence, inChunk, true, csv.toString()));
+        rowsExported.add(total);
+        return total;
+    }
+
+    private void send(ChunkSink sink, ExportChunk chunk) throws IOException {
+        sink.send(chunk);
+        chunksSent.increment();
+    }
+
+    // 요청한 열 이름 (없으면 전체, 모르는 이름이면 IllegalArgumentException)
+    private static List<String> selectColumns(Map<String, ?> available, Object requested) {
+        List<String> names = new ArrayList<>();
+        if (requested instanceof String text) {
+            for (String name : text.split(",")) {
+                if (!name.isBlank()) names.add(name.trim());
+            }
+        } else if (requested instanceof List<?> list) {
+            for (Object name : list) {
+                names.add(String.valueOf(name).trim());
+            }
+        } else if (requested != null) {
+            throw new IllegalArgumentException("columns 는 열 이름 목록이어야 합니다.");
+        }
+        if (names.isEmpty()) {
+            return new ArrayList<>(available.keySet());
+        }
+        for (String name : names) {
+            if (!available.containsKey(name)) {
+                throw new IllegalArgumentException("알 수 없는 열: " + name + " (사용 가능: " + String.join(", ", available.keySet()) + ")");
+            }
+        }
+        return names;
+    }
+
+    // CSV 한 줄 (쉼표, 따옴표, 줄바꿈이 든 값은 따옴표로 감쌈, null 은 빈칸)
+    private static void appendLine(StringBuilder csv, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) csv.append(',');
+            Object value = values.get(i);
+            if (value == null) continue;
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                csv.append(text);
+            }
+        }
+        csv.append("\r\n");
+    }
+
+    // 기간 조건이 있으면 날짜를 알 수 없는 줄은 제외 (예약 색인과 같은 규칙으로 변환, 제외한 줄은 지표에 셈)
+    private boolean inRange(String date, LocalDate from, LocalDate to) {
+        LocalDate day = RoomCalendar.parseDate(date);
+        if (day == null) {
+            undatedRows.increment();
+            return false;
+        }
+        return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+
+    private static LocalDate toDate(Object value, String label) {
+        if (value == null || (value instanceof String text && text.isBlank())) return null;
+        LocalDate date = RoomCalendar.parseDate(value.toString());
+        if (date == null) {
+            throw new IllegalArgumentException(label + " 형식이 올바르지 않습니다 (yyyy-MM-dd): " + value);
+        }
+        return date;
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("export.runs", exports.sum());
+        stats.put("export.rows", rowsExported.sum());
+        stats.put("export.chunks", chunksSent.sum());
+        stats.put("export.undatedRows", undatedRows.sum());
+        stats.put("export.chunkRows", chunkRows);
+        return stats;
+    }
+}
@@ -1,14 +1,23 @@
 package cse.hotel.server.service;
 
+import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.exception.VersionConflictException;
 import cse.hotel.common.model.Food;
+import cse.hotel.common.model.FoodOrder;
 import cse.hotel.server.repository.FoodRepository;
 import cse.hotel.server.repository.FoodOrderRepository; // 주문 내역 저장소
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class FoodService {
     
     private static final FoodService instance = new FoodService();
+
+    // 주문 시각 형식 (초 단위)
+    private static final DateTimeFormatter ORDER_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
     
     // 두 개의 저장소를 모두 사용합니다.
     private final FoodRepository foodRepository = FoodRepository.getInstance();
@@ -29,41 +38,42 @@ public class FoodService {
         foodRepository.addFood(food);
     }
 
-    public void updateFood(Food food) {
-        foodRepository.updateFood(food);
+    // 수정된 메뉴(새 버전) 반환, 그 사이 다른 수정/주문이 있었으면 VersionConflictException
+    public Food updateFood(Food food) throws DataNotFoundException, VersionConflictException {
+        Food updated = foodRepository.updateFood(food);
+        if (updated == null) throw new DataNotFoundException("존재하지 않는 메뉴입니다: " + food.getName());
+        return updated;
     }
 
     public void deleteFood(String foodName) {
         foodRepository.deleteFood(foodName);
     }
 
-    // --- [핵심] 주문 처리 로직 (동기화 필수) ---
-    public synchronized void processOrder(Map<String, Object> orderMap) throws Exception {
+    // --- [핵심] 주문 처리 로직 ---
+    // 서비스 전체를 잠그지 않고 메뉴별 재고 카운터를 CAS 로 차감합니다. (서로 다른 메뉴의 주문은 경합하지 않음)
+    // 재고와 주문 내역의 파일 기록은 PersistenceScheduler 가 백그라운드에서 모아서 처리합니다.
+    // orderMap: foodName, count (필수), customerId, roomNumber, totalPrice (선택, 없으면 메뉴 가격 x 수량)
+    public FoodOrder processOrder(Map<String, Object> orderMap) throws Exception {
         String foodName = (String) orderMap.get("foodName");
         int count = (int) orderMap.get("count");
 
-        // 1. 메뉴가 실제로 존재하는지 확인
-        Food food = foodRepository.findByName(foodName);
-        if (food == null) {
-            throw new Exception("존재하지 않는 메뉴입니다: " + foodName);
-        }
-
-        // 2. 재고 확인
-        if (food.getStock() < count) {
-            throw new Exception("재고가 부족합니다. (남은 수량: " + food.getStock() + ")");
-        }
-
-        // 3. 재고 차감 (메모리 상에서)
-        food.decreaseStock(count);
+        // 1. 메뉴 확인 + 재고 확인 + 차감 (원자적으로 한 번에, 부족하면 차감하지 않음)
+        //    메뉴 가격도 재고와 함께 읽으므로 주문마다 저장소 잠금을 잡지 않음
+        FoodRepository.StockDeduction deduction = foodRepository.decreaseStock(foodName, count);
 
-        // 4. 차감된 재고를 파일(fnb_menu.ser)에 반영
-        // (findByName으로 가져온 객체는 리스트 내의 객체와 동일한 참조이므로, save만 호출하면 됨)
-        // 안전하게 리스트 전체 업데이트 호출
-        foodRepository.updateFoodList(foodRepository.findAll());
+        // 2. 주문 내역 추가 (재고 차감이 먼저 표시된 뒤에 추가해야 같은 기록 주기에 함께 기록됨)
+        //    주문 시각은 서버 기준으로 기록 (일별/메뉴별 매출 집계에 사용)
+        FoodOrder order = new FoodOrder(
+                "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+                (String) orderMap.get("customerId"),
+                orderMap.get("roomNumber") instanceof Integer room ? room : 0,
+                foodName,
+                count,
+                orderMap.get("totalPrice") instanceof Integer price ? price : deduction.unitPrice() * count,
+                LocalDateTime.now().format(ORDER_TIME));
+        orderRepository.addOrder(order);
 
-        // 5. 주문 내역을 주문 장부 파일(food_orders.ser)에 저장
-        orderRepository.addOrder(orderMap);
-        
-        System.out.println("✅ 룸서비스 주문 처리 완료: " + foodName + " -" + count + "개");
+        System.out.println("✅ 룸서비스 주문 처리 완료: " + foodName + " -" + count + "개 (남은 수량: " + deduction.remaining() + ")");
+        return order;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package cse.hotel.server.service;
+
+import cse.hotel.common.model.ClientReservation;
+import cse.hotel.server.ServerConfig;
+import cse.hotel.server.ServerMetrics;
+import cse.hotel.server.repository.RevenueLedger;
+import cse.hotel.server.repository.RoomCalendar;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 예약 목록을 나눠 병렬로 집계하는 보고서 엔진
+ *
+ * 예약 스냅샷(불변 목록)을 CHUNK_SIZE 개씩 고정 크기 조각으로 나눠 전용 ForkJoinPool 에서
+ * 기간별 객실-박(room-night) 수와 투숙 건수를 세고, 조각별 결과 배열을 더해서 합칩니다.
+ * 보고서 1개는 풀 크기의 절반(최소 1)까지만 조각을 동시에 맡기고, 조각 하나가 끝날 때마다 다음 조각을 넣습니다.
+ * 그래서 큰 보고서가 먼저 시작했더라도 나중에 들어온 보고서의 조각이 바로 사이사이에 실행됩니다.
+ *
+ * 취소 여부, 날짜 변환, 기간 계산은 예약 색인(RoomCalendar)과 같은 규칙을 사용합니다.
+ */
+final class ReportEngine {
+
+    /** 기간별(RevenueLedger.Period 순서) 객실-박 수와 기간에 걸친 투숙 건수 */
+    record Occupancy(long[] roomNights, long[] stays) {}
+
+    // 조각 1개가 처리할 예약 수 (너무 작으면 나누는 비용이 더 큼)
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final ReportEngine instance = new ReportEngine();
+
+    private final ForkJoinPool pool;
+    // 보고서 1개가 동시에 맡길 수 있는 조각 수
+    private final int perReport;
+    private final AtomicInteger activeReports = new AtomicInteger();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder reservationsScanned = new LongAdder();
+
+    private ReportEngine() {
+        pool = new ForkJoinPool(Math.max(1, ServerConfig.reportParallelism()), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("report-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        perReport = Math.max(1, pool.getParallelism() / 2);
+        ServerMetrics.register("report", this::getStats);
+    }
+
+    static ReportEngine getInstance() {
+        return instance;
+    }
+
+    /**
+     * 취소되지 않은 예약이 각 기간에 차지하는 객실-박 수를 셉니다. (기간 밖의 박은 잘라냄)
+     * 풀 밖의 스레드(요청/보고서 작업 스레드)에서 호출합니다.
+     * @param periods 이어진 기간 목록 (RevenueLedger.breakdown 결과)
+     */
+    Occupancy countOccupancy(List<ClientReservation> reservations, List<RevenueLedger.Period> periods) {
+        long[] bounds = new long[periods.size() + 1];
+        for (int i = 0; i < periods.size(); i++) {
+            bounds[i] = periods.get(i).start().toEpochDay();
+        }
+        bounds[periods.size()] = periods.get(periods.size() - 1).end().toEpochDay() + 1;
+
+        activeReports.incrementAndGet();
+        runs.increment();
+        Occupancy total = new Occupancy(new long[periods.size()], new long[periods.size()]);
+        Deque<ForkJoinTask<Occupancy>> inFlight = new ArrayDeque<>(perReport);
+        try {
+            int next = 0;
+            while (next < reservations.size() || !inFlight.isEmpty()) {
+                // 맡긴 조각이 perReport 개가 될 때까지 채우고, 가장 먼저 맡긴 조각을 기다려 합침
+                while (next < reservations.size() && inFlight.size() < perReport) {
+                    int lo = next;
+                    int hi = Math.min(reservations.size(), lo + CHUNK_SIZE);
+                    inFlight.add(pool.submit(() -> scan(reservations, lo, hi, bounds)));
+                    next = hi;
+                }
+                Occupancy part = inFlight.poll().get();
+                for (int i = 0; i < total.roomNights().length; i++) {
+                    total.roomNights()[i] += part.roomNights()[i];
+                    total.stays()[i] += part.stays()[i];
+                }
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("보고서 집계가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("보고서 집계 실패: " + e.getCause(), e.getCause());
+        } finally {
+            for (ForkJoinTask<Occupancy> task : inFlight) {
+                task.cancel(false);
+            }
+            activeReports.decrementAndGet();
+        }
+    }
+
+    // 예약 목록의 [lo, hi) 구간을 셈
+    private Occupancy scan(List<ClientReservation> reservations, int lo, int hi, long[] bounds) {
+        int periods = bounds.length - 1;
+        long[] nights = new long[periods];
+        long[] stays = new long[periods];
+        for (int i = lo; i < hi; i++) {
+            ClientReservation r = reservations.get(i);
+            if (RoomCalendar.isCancelled(r)) continue;
+            LocalDate checkIn = RoomCalendar.parseDate(r.getCheckInDate());
+            if (checkIn == null) continue;
+            long end = RoomCalendar.endOf(checkIn, RoomCalendar.parseDate(r.getCheckOutDate())).toEpochDay();
+
+            long from = Math.max(checkIn.toEpochDay(), bounds[0]);
+            long to = Math.min(end, bounds[periods]);
+            if (from >= to) continue;
+            int p = Arrays.binarySearch(bounds, from);
+            if (p < 0) p = -p - 2;
+            for (; p < periods && bounds[p] < to; p++) {
+                nights[p] += Math.min(to, bounds[p + 1]) - Math.max(from, bounds[p]);
+                stays[p]++;
+            }
+        }
+        chunks.increment();
+        reservationsScanned.add(hi - lo);
+        return new Occupancy(nights, stays);
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("report.parallelism", pool.getParallelism());
+        stats.put("report.chunksPerReport", perReport);
+        stats.put("report.activeReports", activeReports.get());
+        stats.put("report.runs", runs.sum());
+        stats.put("report.chunks", chunks.sum());
+        stats.put("report.reservationsScanned", reservationsScanned.sum());
+        stats.put("report.poolSteals", pool.getStealCount());
+        return stats;
+    }
+}
@@ -0,0 +1,263 @@
+package cse.hotel.server.service;
+
+import cse.hotel.common.exception.DataNotFoundException;
+import cse.hotel.common.model.ReportData;
+import cse.hotel.server.ServerConfig;
+import cse.hotel.server.ServerMetrics;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 보고서 작업 관리 (GENERATE_REPORT_ASYNC / REPORT_STATUS / REPORT_RESULT)
+ *
+ * 보고서는 연결 스레드가 아니라 --report-workers 개의 작업 스레드에서 생성하고,
+ * 접수하면 작업 ID 를 바로 돌려줍니다. 대기 중인 작업이 --report-queue-capacity 를 넘으면 접수를 거부합니다.
+ * 같은 기간/단위의 보고서가 이미 대기 중이거나 생성 중이면 새 작업을 만들지 않고 그 작업을 함께 사용합니다.
+ * 끝난 작업의 결과는 --report-result-cache 개까지 보관하며, 오래 조회되지 않은 것부터 지웁니다.
+ *
+ * 기존 GENERATE_REPORT 도 같은 작업에 합류해 결과를 기다리므로 동시에 들어온 같은 보고서는 한 번만 생성됩니다.
+ * (작업 대기열이 가득 차 있으면 예전처럼 요청 스레드에서 바로 생성)
+ */
+public class ReportJobService {
+
+    /** 작업 상태 */
+    public enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    // 보고서 작업 1개
+    private static final class Job {
+        final String id = "RPT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        final String key;
+        final Map<String, Object> params;
+        final CompletableFuture<ReportData> future = new CompletableFuture<>();
+        final long submittedAt = System.currentTimeMillis();
+        final AtomicInteger requests = new AtomicInteger(1); // 합류한 요청 수 포함
+        volatile State state = State.QUEUED;
+        volatile int progress;
+        volatile long startedAt;
+        volatile long finishedAt;
+        volatile String error;
+
+        Job(String key, Map<String, Object> params) {
+            this.key = key;
+            this.params = params;
+        }
+    }
+
+    private static final ReportJobService instance = new ReportJobService();
+
+    private final ReportService reportService = ReportService.getInstance();
+    private final ThreadPoolExecutor executor;
+    private final int resultCapacity;
+
+    // 아직 끝나지 않은 작업 (보고서 키 -> 작업, 작업 ID -> 작업)
+    private final Map<String, Job> inFlightByKey = new ConcurrentHashMap<>();
+    private final Map<String, Job> inFlightById = new ConcurrentHashMap<>();
+    // 끝난 작업 (조회 순서 유지, 가득 차면 가장 오래 조회되지 않은 작업 삭제)
+    private final LinkedHashMap<String, Job> finished;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private ReportJobService() {
+        int workers = Math.max(1, ServerConfig.reportWorkers());
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, ServerConfig.reportQueueCapacity())),
+                r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        resultCapacity = Math.max(1, ServerConfig.reportResultCache());
+        finished = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+                if (size() > resultCapacity) {
+                    evicted.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        ServerMetrics.register("reportJobs", this::getStats);
+    }
+
+    public static ReportJobService getInstance() {
+        return instance;
+    }
+
+    // =========================================================================
+    //                                  접수
+    // =========================================================================
+
+    /**
+     * 보고서 작업을 접수하고 상태를 돌려줍니다. (같은 보고서가 진행 중이면 그 작업의 상태)
+     * @throws IllegalArgumentException 날짜 형식이 잘못된 요청
+     * @throws IllegalStateException 대기 중인 작업이 너무 많을 때
+     */
+    public Map<String, Object> submit(Map<String, Object> params) {
+        Job job = join(params);
+        if (job == null) {
+            throw new IllegalStateException("대기 중인 보고서 작업이 많아 접수할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return statusOf(job);
+    }
+
+    /**
+     * 보고서를 생성해 결과를 돌려줍니다. (기존 GENERATE_REPORT, 같은 보고서가 진행 중이면 그 결과를 기다림)
+     */
+    public ReportData generate(Map<String, Object> params) throws Exception {
+        Job job = join(params);
+        if (job == null) {
+            return reportService.generateReport(params); // 대기열이 가득 차면 요청 스레드에서 바로 생성
+        }
+        try {
+            return job.future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    // 진행 중인 같은 작업에 합류하거나 새 작업을 등록 (대기열이 가득 차면 null)
+    private Job join(Map<String, Object> params) {
+        String key = reportService.requestKey(params);
+        while (true) {
+            Job created = new Job(key, new HashMap<>(params));
+            Job existing = inFlightByKey.putIfAbsent(key, created);
+            if (existing != null) {
+                // 끝나는 중인 작업이면 (키 제거 직전) 다시 시도
+                if (existing.future.isDone()) continue;
+                existing.requests.incrementAndGet();
+                coalesced.increment();
+                return existing;
+            }
+            inFlightById.put(created.id, created);
+            try {
+                executor.execute(() -> run(created));
+            } catch (RejectedExecutionException e) {
+                inFlightByKey.remove(key, created);
+                inFlightById.remove(created.id);
+                rejected.increment();
+                return null;
+            }
+            submitted.increment();
+            System.out.println("📊 보고서 작업 접수: " + created.id + " (" + key + ")");
+            return created;
+        }
+    }
+
+    private void run(Job job) {
+        job.state = State.RUNNING;
+        job.startedAt = System.currentTimeMillis();
+        try {
+            ReportData report = reportService.generateReport(job.params, percent -> job.progress = percent);
+            job.state = State.DONE;
+            completed.increment();
+            finish(job);
+            job.future.complete(report);
+        } catch (Throwable e) {
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.state = State.FAILED;
+            failed.increment();
+            System.err.println("❌ 보고서 작업 실패: " + job.id + " - " + job.error);
+            finish(job);
+            job.future.completeExceptionally(e);
+        }
+    }
+
+    // 진행 중 목록에서 결과 보관 목록으로 옮김 (새 요청이 끝난 작업에 합류하지 않도록 키부터 제거)
+    private void finish(Job job) {
+        job.finishedAt = System.currentTimeMillis();
+        inFlightByKey.remove(job.key, job);
+        synchronized (finished) {
+            finished.put(job.id, job);
+        }
+        inFlightById.remove(job.id);
+    }
+
+    // =========================================================================
+    //                                  조회
+    // =========================================================================
+
+    /** 작업 상태 (REPORT_STATUS) */
+    public Map<String, Object> status(String jobId) throws DataNotFoundException {
+        return statusOf(find(jobId));
+    }
+
+    /**
+     * 완료된 보고서 (REPORT_RESULT)
+     * @throws IllegalStateException 아직 생성 중이거나 실패한 작업
+     */
+    public ReportData result(String jobId) throws DataNotFoundException {
+        Job job = find(jobId);
+        switch (job.state) {
+            case DONE:
+                return job.future.join();
+            case FAILED:
+                throw new IllegalStateException("보고서 생성에 실패했습니다: " + job.error);
+            default:
+                throw new IllegalStateException("보고서를 생성하고 있습니다. (" + job.state + ", " + job.progress + "%)");
+        }
+    }
+
+    private Job find(String jobId) throws DataNotFoundException {
+        Job job = jobId == null ? null : inFlightById.get(jobId);
+        if (job == null && jobId != null) {
+            synchronized (finished) {
+                job = finished.get(jobId);
+            }
+        }
+        if (job == null) {
+            throw new DataNotFoundException("보고서 작업을 찾을 수 없습니다. (ID 가 잘못되었거나 보관 기간이 지났습니다: " + jobId + ")");
+        }
+        return job;
+    }
+
+    private static Map<String, Object> statusOf(Job job) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.id);
+        status.put("report", job.key);
+        status.put("state", job.state.name());
+        status.put("progress", job.progress);
+        status.put("requests", job.requests.get());
+        status.put("waitMillis", (job.startedAt == 0 ? now : job.startedAt) - job.submittedAt);
+        status.put("runMillis", job.startedAt == 0 ? 0L : (job.finishedAt == 0 ? now : job.finishedAt) - job.startedAt);
+        if (job.error != null) {
+            status.put("error", job.error);
+        }
+        return status;
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reportJobs.workers", executor.getMaximumPoolSize());
+        stats.put("reportJobs.running", executor.getActiveCount());
+        stats.put("reportJobs.queued", executor.getQueue().size());
+        stats.put("reportJobs.submitted", submitted.sum());
+        stats.put("reportJobs.coalesced", coalesced.sum());
+        stats.put("reportJobs.rejected", rejected.sum());
+        stats.put("reportJobs.completed", completed.sum());
+        stats.put("reportJobs.failed", failed.sum());
+        synchronized (finished) {
+            stats.put("reportJobs.retainedResults", finished.size());
+        }
+        stats.put("reportJobs.evictedResults", evicted.sum());
+        return stats;
+    }
+}
@@ -1,172 +1,203 @@
 package cse.hotel.server.service;
 
 import cse.hotel.common.model.ReportData;
-import cse.hotel.common.model.ClientReservation; // ClientReservation 사용
-import cse.hotel.common.model.Room;
-import cse.hotel.server.repository.ReservationRepository;
+import cse.hotel.server.repository.ClientReservationRepository;
+import cse.hotel.server.repository.FoodOrderRepository;
+import cse.hotel.server.repository.RevenueLedger;
 import cse.hotel.server.repository.RoomRepository;
+import cse.hotel.server.repository.RoomStatusLog;
 
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * 호텔 통합 보고서 생성 서비스 (SFR-901 ~ 907)
- * (수정됨: 날짜 기간 자동 계산 및 기간 내 매출 필터링 적용)
+ * 매출은 예약/주문이 저장될 때마다 갱신되는 일별 집계(RevenueLedger)에서 합산하므로
+ * 기간 길이와 관계없이 예약 목록을 다시 훑지 않습니다.
+ * 기간별 객실-박 수는 예약 스냅샷을 ReportEngine 이 나눠서 병렬로 셉니다.
+ * 점유율/예약률은 객실 상태 변경 기록에서 만든 객실 x 날짜 표(RoomStatusLog)로 기간마다 따로 계산합니다.
  */
 public class ReportService {
 
     private static final ReportService instance = new ReportService();
 
-    private final ReservationRepository reservationRepository = ReservationRepository.getInstance();
+    private final RevenueLedger ledger = RevenueLedger.getInstance();
+    private final ReportEngine engine = ReportEngine.getInstance();
+    private final ClientReservationRepository reservationRepository = ClientReservationRepository.getInstance();
     private final RoomRepository roomRepository = RoomRepository.getInstance();
-    private final FoodOrderService foodOrderService = FoodOrderService.getInstance();
+    private final RoomStatusLog statusLog = RoomStatusLog.getInstance();
+    private final FoodOrderRepository foodOrderRepository = FoodOrderRepository.getInstance();
 
     private ReportService() {}
     public static ReportService getInstance() { return instance; }
 
     public ReportData generateReport(Map<String, Object> data) throws Exception {
+        return generateReport(data, percent -> {});
+    }
+
+    /**
+     * 보고서를 생성하면서 진행률(0 ~ 100)을 알립니다. (비동기 보고서 작업용)
+     */
+    ReportData generateReport(Map<String, Object> data, IntConsumer progress) throws Exception {
         // 파라미터 안전하게 추출
-        Object startDateObj = data.get("startDate");
-        Object endDateObj = data.get("endDate");
+        LocalDate from = toLocalDate(data.get("startDate"), "시작일");
+        LocalDate to = toLocalDate(data.get("endDate"), "종료일");
+        checkRange(from, to);
         String periodType = (String) data.get("periodType");
 
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        String startDateStr = (startDateObj instanceof Date) ? sdf.format((Date)startDateObj) : (String)startDateObj;
-        String endDateStr = (endDateObj instanceof Date) ? sdf.format((Date)endDateObj) : (String)endDateObj;
-
-        // 1. 데이터 로드
-        @SuppressWarnings("unchecked")
-        List<ClientReservation> allReservations = (List<ClientReservation>)(List<?>) reservationRepository.loadReservations();
-        List<Room> allRooms = roomRepository.findAllRooms();
-        
-        if (allReservations == null) allReservations = new ArrayList<>();
-        if (allRooms == null) allRooms = new ArrayList<>();
-
-        // 2. [중요] 선택한 기간에 해당하는 예약만 필터링
-        List<ClientReservation> targetReservations = filterReservationsByDate(allReservations, startDateStr, endDateStr);
+        // 1. 아직 목록에 반영되지 않은 주문까지 집계에 반영
+        foodOrderRepository.applyPending();
+        progress.accept(10);
 
         ReportData report = new ReportData();
 
-        // 3. 통계 계산 (필터링된 리스트 사용)
-        calculateFinancialMetrics(report, targetReservations);
-        calculateOccupancyMetrics(report, allRooms); // 점유율은 현재 상태 기준 (단순화)
-
-        // 4. 상세 데이터 생성 (기간 자동 계산)
-        // 기간 차이(일수) 계산
-        long diffInMillies = sdf.parse(endDateStr).getTime() - sdf.parse(startDateStr).getTime();
-        int dayCount = (int) TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS) + 1;
-        
-        // 최대 31일까지만 표에 표시 (너무 길어짐 방지, 필요시 제거 가능)
-        if(dayCount > 31) dayCount = 31; 
-
-        report.setPeriodDetails(generatePeriodDetails(startDateStr, dayCount, periodType, report, targetReservations));
-        
-        // 5. 예외 보고서
-        report.setExceptionReportDetails(generateExceptionReport());
+        // 2. 기간 합계 (월 단위 집계 + 앞뒤 날짜)
+        RevenueLedger.Totals totals = ledger.total(from, to);
+        report.setRoomRevenue(totals.roomRevenue());
+        report.setFnbRevenue(totals.fnbRevenue());
+        report.setTotalRevenue(totals.roomRevenue() + totals.fnbRevenue());
+        int totalRooms = roomRepository.countRooms();
+        double[] rates = occupancyRates(from, to, totalRooms);
+        report.setOccupancyRate(rates[0]);
+        report.setReservationRate(rates[1]);
+        progress.accept(30);
+
+        // 3. 기간별 상세 데이터 (일/주/월)
+        RevenueLedger.Rollup rollup = rollupOf(periodType);
+        List<RevenueLedger.Period> periods = ledger.breakdown(from, to, rollup);
+        progress.accept(40);
+        ReportEngine.Occupancy occupancy = engine.countOccupancy(reservationRepository.findAll(), periods);
+        progress.accept(80);
+        report.setPeriodDetails(generatePeriodDetails(periods, occupancy, rollup, totalRooms));
+
+        // 4. 예외 보고서
+        report.setExceptionReportDetails(generateExceptionReport(totals));
+        progress.accept(100);
 
         return report;
     }
 
-    // --- 날짜 필터링 메서드 ---
-    private List<ClientReservation> filterReservationsByDate(List<ClientReservation> all, String start, String end) {
-        List<ClientReservation> filtered = new ArrayList<>();
-        // 단순 문자열 비교 (YYYY-MM-DD 포맷이므로 가능)
-        // 실제로는 start <= checkIn <= end 조건을 체크
-        for (ClientReservation r : all) {
-            String checkIn = r.getCheckInDate();
-            if (checkIn != null && checkIn.compareTo(start) >= 0 && checkIn.compareTo(end) <= 0) {
-                filtered.add(r);
-            }
-        }
-        return filtered;
+    /**
+     * 같은 보고서를 가리키는 요청인지 비교하기 위한 키 ("시작일~종료일/단위")
+     * 날짜 형식이 잘못된 요청은 여기서 IllegalArgumentException 으로 거부됩니다.
+     */
+    String requestKey(Map<String, Object> data) {
+        LocalDate from = toLocalDate(data.get("startDate"), "시작일");
+        LocalDate to = toLocalDate(data.get("endDate"), "종료일");
+        checkRange(from, to);
+        return from + "~" + to + "/" + rollupOf((String) data.get("periodType"));
     }
 
-    private void calculateFinancialMetrics(ReportData report, List<ClientReservation> reservations) {
-        double totalRoomRevenue = 0;
-
-        for (ClientReservation res : reservations) {
-            String status = res.getStatus();
-            if (status != null && !status.equals("CANCELLED") && !status.equals("CANCELED")) {
-                try {
-                    double priceStr = res.getTotalPrice();
-                } catch (NumberFormatException e) { }
-            }
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("시작일이 종료일보다 늦습니다. (" + from + " ~ " + to + ")");
         }
-
-        double totalFnbRevenue = foodOrderService.calculateTotalFnbRevenue(); // (전체 기간 합산)
-        double totalRevenue = totalRoomRevenue + totalFnbRevenue;
-
-        report.setRoomRevenue(totalRoomRevenue);
-        report.setFnbRevenue(totalFnbRevenue);
-        report.setTotalRevenue(totalRevenue);
     }
 
-    private void calculateOccupancyMetrics(ReportData report, List<Room> rooms) {
-        int totalRooms = rooms.size();
-        if (totalRooms == 0) {
-            report.setOccupancyRate(0); report.setReservationRate(0); return;
+    // Date 또는 "yyyy-MM-dd" 문자열
+    private static LocalDate toLocalDate(Object value, String label) {
+        String text = (value instanceof Date date) ? new SimpleDateFormat("yyyy-MM-dd").format(date) : (String) value;
+        if (text == null) {
+            throw new IllegalArgumentException(label + "을 입력해 주세요.");
         }
-        long occupiedCount = rooms.stream().filter(r -> "OCCUPIED".equals(String.valueOf(r.getStatus()))).count();
-        long reservedCount = rooms.stream().filter(r -> "RESERVED".equals(String.valueOf(r.getStatus()))).count();
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(label + " 형식이 올바르지 않습니다 (yyyy-MM-dd): " + text);
+        }
+    }
+
+    // periodType: Daily(기본) / Weekly / Monthly
+    private static RevenueLedger.Rollup rollupOf(String periodType) {
+        if (periodType == null) return RevenueLedger.Rollup.DAILY;
+        return switch (periodType.trim().toUpperCase()) {
+            case "WEEKLY" -> RevenueLedger.Rollup.WEEKLY;
+            case "MONTHLY" -> RevenueLedger.Rollup.MONTHLY;
+            default -> RevenueLedger.Rollup.DAILY;
+        };
+    }
 
-        report.setOccupancyRate(((double) occupiedCount / totalRooms) * 100);
-        report.setReservationRate(((double) (occupiedCount + reservedCount) / totalRooms) * 100);
+    /**
+     * 기간 동안의 {점유율, 예약률} (%)
+     * 점유율: OCCUPIED 객실-일 / (객실 수 x 일수), 예약률: OCCUPIED + RESERVED 객실-일 기준
+     */
+    private double[] occupancyRates(LocalDate from, LocalDate to, int totalRooms) {
+        if (totalRooms == 0) return new double[] { 0, 0 };
+        RoomStatusLog.RoomDays roomDays = statusLog.total(from, to);
+        double capacity = (double) totalRooms * (to.toEpochDay() - from.toEpochDay() + 1);
+        return new double[] {
+                roomDays.occupied() * 100 / capacity,
+                (roomDays.occupied() + roomDays.reserved()) * 100 / capacity
+        };
     }
 
-    // --- 상세 데이터 생성 (기간 자동 적용) ---
-    private List<Map<String, Object>> generatePeriodDetails(String start, int days, String type, ReportData calculatedData, List<ClientReservation> reservations) {
+    // --- 상세 데이터 생성 (기간을 일/주/월 단위로 나눔) ---
+    private List<Map<String, Object>> generatePeriodDetails(List<RevenueLedger.Period> periods, ReportEngine.Occupancy booked,
+                                                            RevenueLedger.Rollup rollup, int totalRooms) {
         List<Map<String, Object>> details = new ArrayList<>();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        Calendar cal = Calendar.getInstance();
-        
-        try {
-            if (start != null) cal.setTime(sdf.parse(start));
-        } catch (Exception e) {}
 
-        // 계산된 일수(days)만큼 반복
-        for (int i = 0; i < days; i++) {
+        for (int i = 0; i < periods.size(); i++) {
+            RevenueLedger.Period period = periods.get(i);
+            RevenueLedger.Totals totals = period.totals();
+            long days = period.end().toEpochDay() - period.start().toEpochDay() + 1;
+            long roomNights = booked.roomNights()[i];
             Map<String, Object> detail = new HashMap<>();
-            String currentDateStr = sdf.format(cal.getTime());
-            
-            double dailyRoomRev = 0;
-            for (ClientReservation res : reservations) {
-                if (res.getCheckInDate() != null && res.getCheckInDate().equals(currentDateStr)) {
-                    String status = res.getStatus();
-                    if (status != null && !status.equals("CANCELLED") && !status.equals("CANCELED")) {
-                        try {
-                            double priceStr = res.getTotalPrice();
-                        } catch (Exception e) {}
-                    }
-                }
-            }
-
-            double dailyFnbRev = calculatedData.getFnbRevenue() / days; // 단순 N빵
-
-            String label = (type != null && type.equals("Daily")) ? currentDateStr : "Day " + (i + 1);
-            
-            detail.put("period", label);
-            detail.put("roomRevenue", (int)dailyRoomRev);
-            detail.put("fnbRevenue", (int)dailyFnbRev);
-            detail.put("occupancy", String.format("%.1f", calculatedData.getOccupancyRate())); 
-            
+            detail.put("period", labelOf(period, rollup));
+            detail.put("roomRevenue", (int) totals.roomRevenue());
+            detail.put("fnbRevenue", (int) totals.fnbRevenue());
+            detail.put("reservations", totals.reservations());
+            detail.put("cancellations", totals.cancellations());
+            detail.put("fnbOrders", totals.fnbOrders());
+            detail.put("fnbItems", quantities(totals));
+            double[] rates = occupancyRates(period.start(), period.end(), totalRooms);
+            detail.put("occupancy", String.format("%.1f", rates[0]));
+            detail.put("reservationRate", String.format("%.1f", rates[1]));
+            // 예약 기준 가동률: 예약된 객실-박 / (객실 수 x 일수)
+            detail.put("roomNights", (int) roomNights);
+            detail.put("stays", (int) booked.stays()[i]);
+            detail.put("bookedRate", String.format("%.1f", totalRooms == 0 ? 0.0 : roomNights * 100.0 / (totalRooms * days)));
             details.add(detail);
-            cal.add(Calendar.DAY_OF_MONTH, 1);
         }
         return details;
     }
 
-    private String generateExceptionReport() {
+    // 일: 2024-05-01, 주: 2024-04-29 ~ 2024-05-05, 월: 2024-05
+    private static String labelOf(RevenueLedger.Period period, RevenueLedger.Rollup rollup) {
+        return switch (rollup) {
+            case DAILY -> period.start().toString();
+            case WEEKLY -> period.start() + " ~ " + period.end();
+            case MONTHLY -> period.start().toString().substring(0, 7);
+        };
+    }
+
+    // 메뉴 이름 -> 판매 수량 (매출이 큰 순)
+    private static Map<String, Integer> quantities(RevenueLedger.Totals totals) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        totals.fnbItems().forEach((name, sales) -> quantities.put(name, sales.quantity()));
+        return quantities;
+    }
+
+    private String generateExceptionReport(RevenueLedger.Totals totals) {
+        StringBuilder items = new StringBuilder();
+        totals.fnbItems().forEach((name, sales) -> items.append(String.format("  - %s: %d개 (%,d원)\n", name, sales.quantity(), sales.revenue())));
+        String undated = ledger.undatedFnbOrders() == 0 ? ""
+                : "  - 주문 날짜가 없는 예전 주문 " + ledger.undatedFnbOrders() + "건 (" + ledger.undatedFnbRevenue() + "원)은 기간 집계에서 제외됩니다.\n";
         return "▶ 요금 정책:\n" +
                "  - 객실 기본료: Standard 기준 50,000원 ~\n" +
                "  - 식음료: 치킨(2.0만), 피자(2.5만), 맥주(0.5만)\n" +
+               (items.length() == 0 ? "" : "▶ 메뉴별 식음료 매출:\n" + items) +
                "▶ 특이사항:\n" +
-               "  - 식음료 주문 데이터는 전체 기간 합산으로 제공됩니다.\n" +
-               "  - 객실 매출은 예약 확정(CONFIRMED) 및 체크인 건 기준입니다.";
+               "  - 식음료 매출은 주문 날짜 기준입니다.\n" +
+               undated +
+               "  - 객실 매출은 취소되지 않은 예약의 체크인 날짜 기준입니다.\n" +
+               "  - 점유율/예약률은 객실 상태 변경 기록 기준입니다. (기록 이전 기간은 0%)";
     }
 }
\ No newline at end of file
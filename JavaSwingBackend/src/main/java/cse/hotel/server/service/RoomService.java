@@ -6,7 +6,13 @@ import cse.hotel.common.model.ClientReservation;
 import cse.hotel.server.repository.RoomRepository;
 import cse.hotel.common.exception.DataNotFoundException;
 import cse.hotel.common.exception.DuplicateIdException;
+import cse.hotel.common.exception.VersionConflictException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class RoomService {
 
@@ -36,36 +42,17 @@ public class RoomService {
         checkIn(roomNumber);
     }
 
+    // 객실 상태는 RoomStatus 의 전이 규칙에 따라서만 바뀌며, 확인과 변경은 RoomRepository.transition 이 원자적으로 처리합니다.
     public void checkIn(int roomNumber) throws Exception {
-        Room room = roomRepository.findRoomByNumber(roomNumber);
-        
-        // ▼▼▼ [수정] Enum 비교 로직 ▼▼▼
-        if (room.getStatus() == RoomStatus.OCCUPIED) {
-            throw new Exception("이미 입실 완료된 객실입니다.");
-        }
-
         // 예약됨(RESERVED) 또는 빈 방(AVAILABLE)일 때만 입실 가능
-        if (room.getStatus() == RoomStatus.RESERVED || room.getStatus() == RoomStatus.AVAILABLE) {
-            room.setStatus(RoomStatus.OCCUPIED); // 상태 변경
-            roomRepository.updateRoom(room);
-            System.out.println("✅ 체크인 완료: " + roomNumber);
-        } else {
-            throw new Exception("입실 불가능한 상태입니다: " + room.getStatus());
-        }
+        roomRepository.transition(roomNumber, null, RoomStatus.OCCUPIED);
+        System.out.println("✅ 체크인 완료: " + roomNumber);
     }
 
     // --- 체크아웃 ---
     public void checkOut(int roomNumber) throws Exception {
-        Room room = roomRepository.findRoomByNumber(roomNumber);
-        if (room == null) throw new DataNotFoundException("객실 없음");
-
-        if (room.getStatus() == RoomStatus.OCCUPIED) {
-            room.setStatus(RoomStatus.CLEANING); // 청소중으로 변경
-            roomRepository.updateRoom(room);
-            System.out.println("👋 체크아웃 완료: " + roomNumber);
-        } else {
-            throw new Exception("체크아웃 가능한 상태가 아닙니다.");
-        }
+        roomRepository.transition(roomNumber, RoomStatus.OCCUPIED, RoomStatus.CLEANING); // 청소중으로 변경
+        System.out.println("👋 체크아웃 완료: " + roomNumber);
     }
 
     public void checkOutWithValidation(int roomNumber, String customerId) throws Exception {
@@ -73,28 +60,37 @@ public class RoomService {
     }
 
     // --- 기타 상태 변경 ---
-    public void finishCleaning(int roomNumber) {
-        Room room = roomRepository.findRoomByNumber(roomNumber);
-        if (room != null) {
-            room.setStatus(RoomStatus.AVAILABLE); // 빈 객실로
-            roomRepository.updateRoom(room);
-        }
+    public void finishCleaning(int roomNumber) throws DataNotFoundException {
+        roomRepository.transition(roomNumber, RoomStatus.CLEANING, RoomStatus.AVAILABLE); // 빈 객실로
     }
 
-    public void reserveRoom(int roomNumber) {
-        Room room = roomRepository.findRoomByNumber(roomNumber);
-        if (room != null) {
-            room.setStatus(RoomStatus.RESERVED); // 예약됨으로
-            roomRepository.updateRoom(room);
+    // --- 빈 객실 검색 (SEARCH_AVAILABLE_ROOMS) ---
+
+    /**
+     * 기간 내 예약이 없는 객실을 검색합니다.
+     * params: checkIn, checkOut (필수, "yyyy-MM-dd" 또는 Date), roomType, minPrice, maxPrice (선택)
+     * 현재 객실 상태(RoomStatus)가 아니라 예약 기간 기준으로 판단합니다.
+     */
+    public List<Room> searchAvailableRooms(Map<?, ?> params) {
+        String checkIn = toDateString(params.get("checkIn"));
+        String checkOut = toDateString(params.get("checkOut"));
+        String roomType = (String) params.get("roomType");
+        Integer minPrice = (Integer) params.get("minPrice");
+        Integer maxPrice = (Integer) params.get("maxPrice");
+
+        List<Room> candidates = new ArrayList<>();
+        for (Room room : roomRepository.findAllRooms()) {
+            if (roomType != null && !roomType.isEmpty() && !roomType.equals(room.getRoomType())) continue;
+            if (minPrice != null && room.getPrice() < minPrice) continue;
+            if (maxPrice != null && room.getPrice() > maxPrice) continue;
+            candidates.add(room);
         }
+        candidates.sort(Comparator.comparingInt(Room::getRoomNumber));
+        return resService.filterAvailableRooms(candidates, checkIn, checkOut);
     }
 
-    public void cancelBooking(int roomNumber) {
-        Room room = roomRepository.findRoomByNumber(roomNumber);
-        if (room != null) {
-            room.setStatus(RoomStatus.AVAILABLE); // 빈 객실로 복구
-            roomRepository.updateRoom(room);
-        }
+    private static String toDateString(Object value) {
+        return (value instanceof Date) ? new SimpleDateFormat("yyyy-MM-dd").format((Date) value) : (String) value;
     }
 
     // --- 기본 CRUD ---
@@ -106,7 +102,12 @@ public class RoomService {
         roomRepository.addRoom(room);
     }
     
-    public void updateRoom(Room room) { roomRepository.updateRoom(room); }
+    // 수정된 객실(새 버전) 반환, 그 사이 다른 변경이 있었으면 VersionConflictException
+    public Room updateRoom(Room room) throws DataNotFoundException, VersionConflictException {
+        Room updated = roomRepository.updateRoom(room);
+        if (updated == null) throw new DataNotFoundException(room.getRoomNumber() + "번 객실이 존재하지 않습니다.");
+        return updated;
+    }
     public void deleteRoom(int roomNumber) { roomRepository.deleteRoom(roomNumber); }
     public Room getRoomInfo(int roomNumber) { return roomRepository.findRoomByNumber(roomNumber); }
 }
\ No newline at end of file
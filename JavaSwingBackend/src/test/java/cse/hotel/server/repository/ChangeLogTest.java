@@ -0,0 +1,211 @@
+package cse.hotel.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ChangeLog 복구 테스트 (레코드 재적용, 잘린 꼬리/CRC 불일치 잘라내기, LSN 이어가기, 스냅샷 후 체크포인트)
+ * 트랜잭션 저널을 쓰지 않는 로그(journaled = false)로 파일 형식만 확인합니다.
+ */
+class ChangeLogTest {
+
+    @TempDir
+    Path dir;
+
+    private File baseFile;
+    private File logFile;
+
+    @BeforeEach
+    void setUp() {
+        baseFile = dir.resolve("test_data.ser").toFile();
+        logFile = dir.resolve("test_data.log").toFile();
+    }
+
+    private ChangeLog<String, Integer> open() {
+        return new ChangeLog<>("test", baseFile, () -> {}, false);
+    }
+
+    // 새 로그 객체로 파일을 다시 읽은 결과
+    private Map<String, Integer> reopen() {
+        Map<String, Integer> state = new LinkedHashMap<>();
+        open().replay(state::put, state::remove);
+        return state;
+    }
+
+    private static void persist(ChangeLog<?, ?> log) throws IOException {
+        log.writePending();
+        log.sync();
+    }
+
+    // 로그 파일의 레코드 본문 목록 ([long LSN][byte 종류]...)
+    private List<byte[]> payloads() throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(logFile))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return payloads;
+                }
+                in.readInt();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                payloads.add(payload);
+            }
+        }
+    }
+
+    // ChangeLog 와 같은 형식의 PUT 레코드 ([int 길이][int CRC32][long LSN][byte 1][key, value])
+    private static byte[] putFrame(long lsn, String key, Integer value) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeLong(lsn);
+        out.writeByte(1);
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(key);
+            oos.writeObject(value);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        DataOutputStream framed = new DataOutputStream(frame);
+        framed.writeInt(bytes.length);
+        framed.writeInt((int) crc.getValue());
+        framed.write(bytes);
+        return frame.toByteArray();
+    }
+
+    @Test
+    @DisplayName("기록한 추가/삭제를 같은 순서로 다시 적용")
+    void replayAppliesRecordsInOrder() throws IOException {
+        ChangeLog<String, Integer> log = open();
+        log.replay((k, v) -> {}, k -> {});
+        log.put("a", 1);
+        log.put("b", 2);
+        log.delete("a");
+        log.put("b", 3);
+        persist(log);
+
+        Map<String, Integer> state = new LinkedHashMap<>();
+        assertEquals(4, open().replay(state::put, state::remove));
+        assertEquals(Map.of("b", 3), state);
+    }
+
+    @Test
+    @DisplayName("중간에 잘린 마지막 레코드는 잘라내고 그 뒤로 이어서 기록")
+    void replayTruncatesTornTail() throws IOException {
+        ChangeLog<String, Integer> log = open();
+        log.replay((k, v) -> {}, k -> {});
+        log.put("a", 1);
+        log.put("b", 2);
+        persist(log);
+        long valid = logFile.length();
+
+        byte[] torn = putFrame(ChangeLog.nextLsn(), "c", 3);
+        Files.write(logFile.toPath(), Arrays.copyOf(torn, torn.length - 5), StandardOpenOption.APPEND);
+
+        ChangeLog<String, Integer> recovered = open();
+        Map<String, Integer> state = new LinkedHashMap<>();
+        assertEquals(2, recovered.replay(state::put, state::remove));
+        assertEquals(Map.of("a", 1, "b", 2), state);
+        assertEquals(valid, logFile.length());
+
+        recovered.put("d", 4);
+        persist(recovered);
+        assertEquals(Map.of("a", 1, "b", 2, "d", 4), reopen());
+    }
+
+    @Test
+    @DisplayName("CRC 가 맞지 않는 레코드부터 잘라냄")
+    void replayStopsAtChecksumMismatch() throws IOException {
+        ChangeLog<String, Integer> log = open();
+        log.replay((k, v) -> {}, k -> {});
+        log.put("a", 1);
+        persist(log);
+        long valid = logFile.length();
+        log.put("b", 2);
+        persist(log);
+
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int b = file.read();
+            file.seek(last);
+            file.write(b ^ 0xFF);
+        }
+
+        assertEquals(Map.of("a", 1), reopen());
+        assertEquals(valid, logFile.length());
+    }
+
+    @Test
+    @DisplayName("다시 읽은 뒤 새 레코드는 파일에 있던 LSN 보다 큰 LSN 을 받음")
+    void replayAdvancesLsnPastLog() throws IOException {
+        long recorded = ChangeLog.currentLsn() + 1000;
+        Files.write(logFile.toPath(), putFrame(recorded, "a", 1));
+
+        ChangeLog<String, Integer> log = open();
+        Map<String, Integer> state = new LinkedHashMap<>();
+        assertEquals(1, log.replay(state::put, state::remove));
+        assertEquals(Map.of("a", 1), state);
+        assertTrue(ChangeLog.currentLsn() >= recorded);
+
+        log.put("b", 2);
+        persist(log);
+        List<byte[]> payloads = payloads();
+        assertEquals(2, payloads.size());
+        assertTrue(ChangeLog.lsnOf(payloads.get(1)) > recorded);
+    }
+
+    @Test
+    @DisplayName("스냅샷 저장 후에는 체크포인트 뒤의 레코드만 다시 적용")
+    @SuppressWarnings("unchecked")
+    void compactLeavesOnlyCheckpoint() throws IOException, ClassNotFoundException {
+        ChangeLog<String, Integer> log = open();
+        log.replay((k, v) -> {}, k -> {});
+        log.put("a", 1);
+        log.put("b", 2);
+        persist(log);
+        assertTrue(log.compact(new HashMap<>(Map.of("a", 1, "b", 2))));
+
+        List<byte[]> payloads = payloads();
+        assertEquals(1, payloads.size());
+        assertEquals(3, payloads.get(0)[Long.BYTES]); // 체크포인트 레코드
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(baseFile))) {
+            assertEquals(Map.of("a", 1, "b", 2), (Map<String, Integer>) in.readObject());
+        }
+
+        log.put("c", 3);
+        persist(log);
+        Map<String, Integer> state = new LinkedHashMap<>();
+        assertEquals(1, open().replay(state::put, state::remove));
+        assertEquals(Map.of("c", 3), state);
+    }
+}
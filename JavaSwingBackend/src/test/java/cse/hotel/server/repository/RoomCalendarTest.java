@@ -0,0 +1,127 @@
+package cse.hotel.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cse.hotel.common.model.ClientReservation;
+import java.time.LocalDate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RoomCalendar 테스트 ([체크인, 체크아웃) 구간의 겹침 규칙과 날짜 변환)
+ */
+class RoomCalendarTest {
+
+    private static ClientReservation reservation(String id, int room, String checkIn, String checkOut, String status) {
+        return new ClientReservation(id, "CUST-1", room, checkIn, checkOut, 100000, status);
+    }
+
+    private static LocalDate day(String date) {
+        return LocalDate.parse(date);
+    }
+
+    @Test
+    @DisplayName("체크아웃 날 체크인하는 예약은 겹치지 않음")
+    void backToBackStaysDoNotConflict() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("R1", 101, "2027-01-10", "2027-01-12", "CONFIRMED"));
+
+        assertNull(calendar.findConflict(101, day("2027-01-12"), day("2027-01-14")));
+        assertNull(calendar.findConflict(101, day("2027-01-08"), day("2027-01-10")));
+    }
+
+    @Test
+    @DisplayName("하루라도 겹치면 충돌 (앞/뒤 걸침, 포함, 포함됨)")
+    void overlappingStaysConflict() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("R1", 101, "2027-01-10", "2027-01-13", "CONFIRMED"));
+
+        assertEquals("R1", calendar.findConflict(101, day("2027-01-09"), day("2027-01-11")));
+        assertEquals("R1", calendar.findConflict(101, day("2027-01-12"), day("2027-01-15")));
+        assertEquals("R1", calendar.findConflict(101, day("2027-01-05"), day("2027-01-20")));
+        assertEquals("R1", calendar.findConflict(101, day("2027-01-11"), day("2027-01-12")));
+        assertNull(calendar.findConflict(102, day("2027-01-11"), day("2027-01-12")));
+    }
+
+    @Test
+    @DisplayName("긴 예약 뒤에 짧은 예약이 있어도 긴 예약과의 충돌을 찾음")
+    void longEarlierStayIsFoundBehindShorterOnes() {
+        RoomCalendar calendar = new RoomCalendar();
+        // 예전 데이터처럼 서로 겹친 채 저장된 예약
+        calendar.put(reservation("LONG", 101, "2027-01-01", "2027-01-31", "CONFIRMED"));
+        calendar.put(reservation("SHORT", 101, "2027-01-05", "2027-01-06", "CONFIRMED"));
+        calendar.put(reservation("LATER", 101, "2027-01-15", "2027-01-16", "CONFIRMED"));
+
+        assertEquals("LONG", calendar.findConflict(101, day("2027-01-20"), day("2027-01-21")));
+        assertNull(calendar.findConflict(101, day("2027-01-31"), day("2027-02-02")));
+    }
+
+    @Test
+    @DisplayName("취소된 예약과 날짜를 알 수 없는 예약은 색인하지 않음")
+    void cancelledAndUndatedReservationsAreIgnored() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("C1", 101, "2027-01-10", "2027-01-12", "CANCELLED"));
+        calendar.put(reservation("C2", 101, "2027-01-10", "2027-01-12", "CANCELED"));
+        calendar.put(reservation("X1", 101, "1111", "1111", "CONFIRMED"));
+
+        assertNull(calendar.findConflict(101, day("2027-01-10"), day("2027-01-12")));
+    }
+
+    @Test
+    @DisplayName("삭제하거나 같은 예약을 다시 넣으면 이전 구간은 비워짐")
+    void removeAndReplaceFreeOldRange() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("R1", 101, "2027-01-10", "2027-01-12", "CONFIRMED"));
+        calendar.put(reservation("R1", 101, "2027-02-10", "2027-02-12", "CONFIRMED"));
+
+        assertNull(calendar.findConflict(101, day("2027-01-10"), day("2027-01-12")));
+        assertEquals("R1", calendar.findConflict(101, day("2027-02-11"), day("2027-02-12")));
+
+        calendar.put(reservation("R1", 101, "2027-02-10", "2027-02-12", "CANCELLED"));
+        assertNull(calendar.findConflict(101, day("2027-02-10"), day("2027-02-12")));
+
+        calendar.put(reservation("R2", 101, "2027-03-01", "2027-03-03", "CONFIRMED"));
+        calendar.remove("R2");
+        assertNull(calendar.findConflict(101, day("2027-03-01"), day("2027-03-03")));
+    }
+
+    @Test
+    @DisplayName("체크아웃이 없거나 체크인보다 빠르면 1박으로 봄")
+    void missingOrEarlyCheckOutCountsAsOneNight() {
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("R1", 101, "2027-01-10", null, "CONFIRMED"));
+        calendar.put(reservation("R2", 102, "2027-01-10", "2027-01-09", "CONFIRMED"));
+
+        assertEquals("R1", calendar.findConflict(101, day("2027-01-10"), day("2027-01-11")));
+        assertNull(calendar.findConflict(101, day("2027-01-11"), day("2027-01-12")));
+        assertEquals("R2", calendar.findConflict(102, day("2027-01-09"), day("2027-01-11")));
+        assertEquals(day("2027-01-11"), RoomCalendar.endOf(day("2027-01-10"), null));
+    }
+
+    @Test
+    @DisplayName("월/일 한 자리 날짜는 허용하고 없는 날짜는 거부")
+    void parseDateIsLenientAboutDigitsButStrictAboutDays() {
+        assertEquals(day("2025-12-01"), RoomCalendar.parseDate("2025-12-1"));
+        assertEquals(day("2027-06-01"), RoomCalendar.parseDate(" 2027-6-1 "));
+        assertNull(RoomCalendar.parseDate("2027-02-30"));
+        assertNull(RoomCalendar.parseDate("oops"));
+        assertNull(RoomCalendar.parseDate(null));
+
+        // 한 자리로 저장된 예약도 같은 기간으로 검사
+        RoomCalendar calendar = new RoomCalendar();
+        calendar.put(reservation("R1", 101, "2025-11-25", "2025-12-1", "CONFIRMED"));
+        assertEquals("R1", calendar.findConflict(101, day("2025-11-30"), day("2025-12-02")));
+    }
+
+    @Test
+    @DisplayName("취소 상태는 두 가지 철자를 모두 인정")
+    void cancelledStatusSpellings() {
+        assertTrue(RoomCalendar.isCancelled(reservation("R1", 101, "2027-01-01", "2027-01-02", "CANCELLED")));
+        assertTrue(RoomCalendar.isCancelled(reservation("R1", 101, "2027-01-01", "2027-01-02", "CANCELED")));
+        assertFalse(RoomCalendar.isCancelled(reservation("R1", 101, "2027-01-01", "2027-01-02", "CONFIRMED")));
+        assertFalse(RoomCalendar.isCancelled(reservation("R1", 101, "2027-01-01", "2027-01-02", null)));
+    }
+}
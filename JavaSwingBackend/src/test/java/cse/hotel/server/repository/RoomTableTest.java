@@ -0,0 +1,123 @@
+package cse.hotel.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cse.hotel.common.model.Room;
+import cse.hotel.common.model.RoomStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RoomTable 테스트 (삭제 시 뒤쪽 항목을 당겨 올 때 탐사 경로와 상태 비트가 함께 유지되는지)
+ */
+class RoomTableTest {
+
+    private static final RoomStatus[] STATUSES = RoomStatus.values();
+
+    private static Room room(int number, RoomStatus status) {
+        Room room = new Room(number, "싱글", 100000);
+        room.setStatus(status);
+        return room;
+    }
+
+    // 테이블이 기준 Map 과 같은 내용인지 (조회, 목록, 상태별 수/목록)
+    private static void assertMatches(TreeMap<Integer, Room> expected, RoomTable table) {
+        assertEquals(expected.size(), table.size());
+        for (Room room : expected.values()) {
+            assertSame(room, table.get(room.getRoomNumber()), room.getRoomNumber() + "호를 찾지 못함");
+        }
+        assertEquals(new ArrayList<>(expected.values()), table.values());
+        for (RoomStatus status : STATUSES) {
+            List<Room> withStatus = new ArrayList<>();
+            for (Room room : expected.values()) {
+                if (room.getStatus() == status) withStatus.add(room);
+            }
+            assertEquals(withStatus.size(), table.count(status), status + " 객실 수");
+            assertEquals(withStatus, table.withStatus(status), status + " 객실 목록");
+        }
+    }
+
+    @Test
+    @DisplayName("삭제할 때마다 나머지 객실을 모두 찾을 수 있고 상태 비트도 옮겨짐")
+    void removeKeepsProbeChainsAndStatusBits() {
+        RoomTable table = new RoomTable();
+        TreeMap<Integer, Room> expected = new TreeMap<>();
+        // 확장 없이(32칸, 적재율 0.75 이하) 채워 충돌과 배열 끝을 넘어가는 탐사가 생기게 함
+        for (int number = 101; number <= 124; number++) {
+            Room room = room(number, STATUSES[number % STATUSES.length]);
+            table.put(number, room);
+            expected.put(number, room);
+        }
+        assertMatches(expected, table);
+
+        List<Integer> order = new ArrayList<>(expected.keySet());
+        Collections.shuffle(order, new Random(7));
+        for (int number : order) {
+            assertSame(expected.remove(number), table.remove(number));
+            assertFalse(table.contains(number));
+            assertMatches(expected, table);
+        }
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    @DisplayName("없는 객실 삭제는 null 이고 아무것도 바꾸지 않음")
+    void removeMissingRoom() {
+        RoomTable table = new RoomTable();
+        table.put(101, room(101, RoomStatus.OCCUPIED));
+        List<Room> before = table.values();
+        long revision = table.revision();
+
+        assertNull(table.remove(999));
+        assertEquals(revision, table.revision());
+        assertSame(before, table.snapshot());
+        assertEquals(1, table.count(RoomStatus.OCCUPIED));
+    }
+
+    @Test
+    @DisplayName("삭제하면 변경 번호가 오르고 이전 전체 목록은 버려짐")
+    void removeInvalidatesSnapshot() {
+        RoomTable table = new RoomTable();
+        table.put(101, room(101, RoomStatus.AVAILABLE));
+        table.put(102, room(102, RoomStatus.CLEANING));
+        table.values();
+        long revision = table.revision();
+
+        table.remove(101);
+        assertNotEquals(revision, table.revision());
+        assertNull(table.snapshot());
+        assertEquals(List.of(102), table.values().stream().map(Room::getRoomNumber).toList());
+    }
+
+    @Test
+    @DisplayName("추가/상태 변경/삭제를 섞어도 기준 Map 과 같음 (확장 포함)")
+    void randomOperationsMatchReference() {
+        RoomTable table = new RoomTable();
+        TreeMap<Integer, Room> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            int number = 1 + random.nextInt(80);
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(number), table.remove(number));
+            } else {
+                Room room = room(number, STATUSES[random.nextInt(STATUSES.length)]);
+                table.put(number, room);
+                expected.put(number, room);
+            }
+            if (i % 50 == 0) {
+                assertMatches(expected, table);
+            }
+        }
+        assertMatches(expected, table);
+    }
+}